@@ -0,0 +1,15 @@
+#!/bin/bash
+
+# SSO callback throughput at high concurrency: platform threads vs virtual threads
+#
+# Usage: ./benchmark-callback-threads.sh [concurrency-levels] [callbacks-per-level] [workos-ms] [corp-mapping-ms]
+# e.g.   ./benchmark-callback-threads.sh 100,1000,5000 20000 80 40
+# Runs against in-process stub upstreams. The virtual-thread variant needs
+# JDK 21+; on older JDKs only the platform variant runs.
+
+set -e
+
+mvn -q -B compile
+CLASSPATH="target/classes:$(mvn -q -B dependency:build-classpath -Dmdep.outputFile=/dev/stdout)"
+
+java -cp "$CLASSPATH" -Djdk.tracePinnedThreads=short benchmarks/CallbackThroughputBenchmark.java "$@"
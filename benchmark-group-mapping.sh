@@ -0,0 +1,13 @@
+#!/bin/bash
+
+# Group -> role mapping benchmark (GroupRoleMapper) with 1,000-group profiles
+#
+# Usage: ./benchmark-group-mapping.sh [groups-per-profile] [rule-count]
+# Requires JDK 11+ (runs the benchmark as a single-file source program).
+
+set -e
+
+mvn -q -B compile
+CLASSPATH="target/classes:$(mvn -q -B dependency:build-classpath -Dmdep.outputFile=/dev/stdout)"
+
+java -cp "$CLASSPATH" benchmarks/GroupRoleMappingBenchmark.java "$@"
@@ -0,0 +1,13 @@
+#!/bin/bash
+
+# Token validation time and allocation with large attribute payloads: jjwt vs LazyClaims
+#
+# Usage: ./benchmark-lazy-claims.sh
+# Requires a HotSpot JDK 11+ (single-file source program, per-thread allocation counter).
+
+set -e
+
+mvn -q -B compile
+CLASSPATH="target/classes:$(mvn -q -B dependency:build-classpath -Dmdep.outputFile=/dev/stdout)"
+
+java -cp "$CLASSPATH" benchmarks/LazyClaimsBenchmark.java "$@"
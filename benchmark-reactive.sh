@@ -0,0 +1,38 @@
+#!/bin/bash
+
+# Connection load benchmark: servlet (Tomcat) build vs the reactive profile (WebFlux/Netty)
+#
+# Usage: ./benchmark-reactive.sh [seconds-per-level] [concurrency-levels]
+# e.g.   ./benchmark-reactive.sh 10 100,1000,5000
+# Starts the app once per variant, logs in as org_super and keeps N requests in
+# flight against /api/me and /api/demo/support. Requires JDK 11+ for the client.
+# Raise the open-file limit (ulimit -n) above the highest concurrency level.
+
+set -e
+
+SECONDS_PER_LEVEL=${1:-10}
+LEVELS=${2:-100,1000,5000}
+PORT=18082
+
+mvn -q -B package -DskipTests
+JAR=$(ls target/workos-poc-*.jar | grep -v original | head -1)
+
+run_variant() {
+    local name=$1
+    shift
+    # application.yml logs security and app classes at DEBUG; keep that out of the measurement
+    java -jar "$JAR" --server.port=$PORT \
+        --logging.level.org.springframework.security=INFO --logging.level.com.example.workospoc=INFO "$@" > /dev/null 2>&1 &
+    local pid=$!
+    until curl -s -o /dev/null -f "http://localhost:$PORT/api/test/workos"; do
+        sleep 0.2
+    done
+    echo "== $name"
+    java benchmarks/ConnectionLoadBenchmark.java "http://localhost:$PORT" "$SECONDS_PER_LEVEL" "$LEVELS"
+    echo ""
+    kill $pid
+    wait $pid 2> /dev/null || true
+}
+
+run_variant "servlet (default)"
+run_variant "reactive" --spring.profiles.active=reactive
@@ -0,0 +1,58 @@
+#!/bin/bash
+
+# Startup benchmark: time from JVM launch to the first successful HTTP response
+#
+# Usage: ./benchmark-startup.sh [runs]
+# Compares the default configuration, the fast-startup profile, and the
+# fast-startup profile with the AppCDS archive (if build-cds-archive.sh has
+# been run). Each run starts a fresh JVM and polls /api/test/workos.
+
+RUNS=${1:-5}
+PORT=18081
+APP_DIR=target/cds-app
+ARCHIVE=target/app-cds.jsa
+MAIN_CLASS=com.example.workospoc.WorkosPocApplication
+
+if [ ! -d "$APP_DIR" ]; then
+    echo "Unpacked application not found in $APP_DIR - run ./build-cds-archive.sh first."
+    exit 1
+fi
+CLASSPATH="$APP_DIR/app.jar:$APP_DIR/BOOT-INF/lib/*"
+
+now_ms() {
+    date +%s%3N
+}
+
+# Start the app with the given JVM/app arguments and print ms until the first 200
+measure() {
+    local start
+    start=$(now_ms)
+    java "$@" --server.port=$PORT > /dev/null 2>&1 &
+    local pid=$!
+    until curl -s -o /dev/null -f "http://localhost:$PORT/api/test/workos"; do
+        sleep 0.02
+    done
+    echo $(( $(now_ms) - start ))
+    kill $pid
+    wait $pid 2> /dev/null
+}
+
+run_variant() {
+    local name=$1
+    shift
+    local total=0
+    for i in $(seq 1 "$RUNS"); do
+        local ms
+        ms=$(measure "$@")
+        total=$(( total + ms ))
+        echo "  $name run $i: ${ms} ms"
+    done
+    echo "$name average time-to-first-request: $(( total / RUNS )) ms"
+    echo ""
+}
+
+run_variant "default" -cp "$CLASSPATH" "$MAIN_CLASS"
+run_variant "fast-startup" -cp "$CLASSPATH" "$MAIN_CLASS" --spring.profiles.active=fast-startup
+if [ -f "$ARCHIVE" ]; then
+    run_variant "fast-startup+AppCDS" -XX:SharedArchiveFile="$ARCHIVE" -cp "$CLASSPATH" "$MAIN_CLASS" --spring.profiles.active=fast-startup
+fi
@@ -0,0 +1,13 @@
+#!/bin/bash
+
+# SSO token minting: jjwt builder vs HmacSha256Signer (jwt.fast-signer.enabled)
+#
+# Usage: ./benchmark-token-minting.sh
+# Requires JDK 11+ (runs the benchmark as a single-file source program).
+
+set -e
+
+mvn -q -B compile
+CLASSPATH="target/classes:$(mvn -q -B dependency:build-classpath -Dmdep.outputFile=/dev/stdout)"
+
+java -cp "$CLASSPATH" benchmarks/TokenMintingBenchmark.java "$@"
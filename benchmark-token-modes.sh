@@ -0,0 +1,13 @@
+#!/bin/bash
+
+# Request authentication cost: signed JWTs vs reference tokens (jwt.token-mode)
+#
+# Usage: ./benchmark-token-modes.sh
+# Requires JDK 11+ (runs the benchmark as a single-file source program).
+
+set -e
+
+mvn -q -B compile
+CLASSPATH="target/classes:$(mvn -q -B dependency:build-classpath -Dmdep.outputFile=/dev/stdout)"
+
+java -cp "$CLASSPATH" benchmarks/TokenModeBenchmark.java "$@"
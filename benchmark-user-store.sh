@@ -0,0 +1,13 @@
+#!/bin/bash
+
+# Local-login user lookup latency with 1M users in the embedded H2 store (UserStore)
+#
+# Usage: ./benchmark-user-store.sh [users] [lookups] [mem|file]
+# Requires JDK 11+ (runs the benchmark as a single-file source program).
+
+set -e
+
+mvn -q -B compile
+CLASSPATH="target/classes:$(mvn -q -B dependency:build-classpath -Dmdep.outputFile=/dev/stdout)"
+
+java -cp "$CLASSPATH" benchmarks/UserStoreLookupBenchmark.java "$@"
@@ -0,0 +1,200 @@
+import com.example.workospoc.config.CorpMappingClient;
+import com.example.workospoc.config.TenantFairScheduler;
+import com.example.workospoc.config.VirtualThreadConfig;
+import com.example.workospoc.config.WorkOSConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Callback throughput with platform threads vs virtual threads
+ *
+ * Stub WorkOS and corp-mapping servers answer after a fixed delay. Each
+ * simulated callback makes the blocking code exchange on its request thread
+ * (as workOS.sso.getProfileAndToken does) and then resolves the corpId with
+ * the real CorpMappingClient on the TenantFairScheduler. Request threads are
+ * a 200-thread pool (Tomcat's default) in platform mode and one virtual
+ * thread per request in virtual mode. Run with ./benchmark-callback-threads.sh.
+ */
+public class CallbackThroughputBenchmark {
+
+    private static final byte[] PROFILE_BODY = ("{\"profile\":{\"id\":\"prof_benchmark\",\"email\":\"user@example.com\","
+        + "\"connection_id\":\"conn_benchmark\",\"organization_id\":\"org_benchmark\"},\"access_token\":\"benchmark\"}")
+        .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CORP_ID_BODY = "{\"corpId\":\"CORP_BENCHMARK\"}".getBytes(StandardCharsets.UTF_8);
+
+    public static void main(String[] args) throws Exception {
+        int[] concurrencyLevels = args.length > 0
+            ? Arrays.stream(args[0].split(",")).mapToInt(Integer::parseInt).toArray()
+            : new int[] {100, 1000, 5000};
+        int callbacks = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+        long workOSLatencyMs = args.length > 2 ? Long.parseLong(args[2]) : 80;
+        long corpMappingLatencyMs = args.length > 3 ? Long.parseLong(args[3]) : 40;
+
+        HttpServer workOS = stub("/sso/token", PROFILE_BODY, workOSLatencyMs);
+        HttpServer corpMapping = stub("/api/user/corpId", CORP_ID_BODY, corpMappingLatencyMs);
+        String workOSUrl = "http://localhost:" + workOS.getAddress().getPort() + "/sso/token";
+
+        System.out.printf("%d callbacks per level, stub WorkOS %d ms, stub corp-mapping %d ms%n",
+            callbacks, workOSLatencyMs, corpMappingLatencyMs);
+        for (boolean virtual : new boolean[] {false, true}) {
+            VirtualThreadConfig threads = new VirtualThreadConfig();
+            set(threads, "requested", virtual);
+            if (virtual && !threads.isActive()) {
+                System.out.println("virtual: not available on Java " + System.getProperty("java.specification.version")
+                    + " (platform threads only)");
+                continue;
+            }
+            TenantFairScheduler scheduler = scheduler(threads);
+            CorpMappingClient corpMappingClient = corpMappingClient(corpMapping.getAddress().getPort());
+            ExecutorService requestThreads = virtual
+                ? Executors.newCachedThreadPool(threads.threadFactory("http-virtual-"))
+                : Executors.newFixedThreadPool(200, threads.threadFactory("http-nio-"));
+
+            for (int concurrency : concurrencyLevels) {
+                run(virtual ? "virtual" : "platform", concurrency, callbacks, requestThreads,
+                    () -> callback(workOSUrl, scheduler, corpMappingClient));
+            }
+            requestThreads.shutdownNow();
+            scheduler.shutdown();
+        }
+        workOS.stop(0);
+        corpMapping.stop(0);
+    }
+
+    private interface Callback {
+        void run() throws Exception;
+    }
+
+    /**
+     * Code exchange on the request thread, then the corp-mapping lookup on the fair-share scheduler
+     */
+    private static void callback(String workOSUrl, TenantFairScheduler scheduler, CorpMappingClient corpMappingClient)
+            throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL(workOSUrl).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write("code=benchmark&client_id=client_benchmark".getBytes(StandardCharsets.UTF_8));
+        }
+        readFully(connection.getInputStream());
+        if (connection.getResponseCode() != 200) {
+            throw new IOException("Stub WorkOS returned " + connection.getResponseCode());
+        }
+        String corpId = scheduler.execute("conn_benchmark",
+            () -> corpMappingClient.fetchUserCorpId("org_benchmark", "user@example.com"));
+        if (!"CORP_BENCHMARK".equals(corpId)) {
+            throw new IOException("Unexpected corpId " + corpId);
+        }
+    }
+
+    private static void run(String mode, int concurrency, int callbacks, ExecutorService requestThreads,
+                            Callback callback) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(concurrency);
+        long[] latencies = new long[callbacks];
+        AtomicInteger errors = new AtomicInteger();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < callbacks; i++) {
+            inFlight.acquire();
+            int slot = i;
+            long submitted = System.nanoTime();
+            requestThreads.execute(() -> {
+                try {
+                    callback.run();
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                } finally {
+                    latencies[slot] = System.nanoTime() - submitted;
+                    inFlight.release();
+                }
+            });
+        }
+        inFlight.acquire(concurrency);
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf("%-8s concurrency %5d: %8.0f callbacks/s, p50 %7.1f ms, p99 %8.1f ms, errors %d%n",
+            mode, concurrency, callbacks / (elapsed / 1e9),
+            latencies[callbacks / 2] / 1e6, latencies[(int) (callbacks * 0.99)] / 1e6, errors.get());
+    }
+
+    private static HttpServer stub(String path, byte[] body, long latencyMs) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 10000);
+        server.createContext(path, exchange -> respond(exchange, body, latencyMs));
+        // One thread per waiting request so the stubs are never the bottleneck
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        return server;
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body, long latencyMs) throws IOException {
+        try {
+            readFully(exchange.getRequestBody());
+            Thread.sleep(latencyMs);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = input.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static TenantFairScheduler scheduler(VirtualThreadConfig threads) throws Exception {
+        TenantFairScheduler scheduler = new TenantFairScheduler(new SimpleMeterRegistry(), threads);
+        set(scheduler, "enabled", true);
+        set(scheduler, "workerCount", 16);
+        set(scheduler, "virtualWorkerCount", 256);
+        set(scheduler, "maxQueueDepthPerTenant", 100_000);
+        set(scheduler, "maxQueued", 100_000);
+        set(scheduler, "queueTimeoutMs", 60_000L);
+        set(scheduler, "maxTenants", 500);
+        set(scheduler, "weightsSpec", "");
+        scheduler.init();
+        return scheduler;
+    }
+
+    private static CorpMappingClient corpMappingClient(int port) throws Exception {
+        WorkOSConfig workOSConfig = new WorkOSConfig();
+        set(workOSConfig, "corpMappingApiBaseUrl", "http://localhost:" + port);
+        set(workOSConfig, "corpMappingApiKey", "");
+        set(workOSConfig, "corpMappingUserCorpIdPath", "/api/user/corpId");
+        return new CorpMappingClient(new RestTemplate(), workOSConfig);
+    }
+
+    private static void set(Object target, String field, Object value) throws Exception {
+        Field f = target.getClass().getDeclaredField(field);
+        f.setAccessible(true);
+        f.set(target, value);
+    }
+}
@@ -0,0 +1,112 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Load benchmark for authenticated requests at high connection counts
+ *
+ * Logs in once, then keeps N requests in flight against /api/me and
+ * /api/demo/support for a fixed duration per concurrency level and reports
+ * throughput, p50/p99 latency and errors. Run against the servlet and the
+ * reactive build with ./benchmark-reactive.sh.
+ */
+public class ConnectionLoadBenchmark {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8081";
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int[] concurrencyLevels = args.length > 2
+            ? Arrays.stream(args[2].split(",")).mapToInt(Integer::parseInt).toArray()
+            : new int[] {100, 1000, 5000};
+
+        HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        String token = login(client, baseUrl);
+
+        for (String path : new String[] {"/api/me", "/api/demo/support"}) {
+            for (int concurrency : concurrencyLevels) {
+                run(client, baseUrl + path, token, concurrency, seconds);
+            }
+        }
+    }
+
+    private static String login(HttpClient client, String baseUrl) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"org_super\",\"password\":\"password\"}"))
+            .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = TOKEN.matcher(response.body());
+        if (response.statusCode() != 200 || !matcher.find()) {
+            throw new IllegalStateException("Login failed: " + response.statusCode() + " " + response.body());
+        }
+        return matcher.group(1);
+    }
+
+    private static void run(HttpClient client, String url, String token, int concurrency, int seconds)
+            throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+            .header("Authorization", "Bearer " + token)
+            .timeout(Duration.ofSeconds(30))
+            .GET()
+            .build();
+
+        Semaphore inFlight = new Semaphore(concurrency);
+        // Latencies in microseconds; sized for the expected request count
+        long[] latencies = new long[4_000_000];
+        AtomicInteger recorded = new AtomicInteger();
+        AtomicLong errors = new AtomicLong();
+        AtomicInteger started = new AtomicInteger();
+
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long start = System.nanoTime();
+        while (System.nanoTime() < deadline) {
+            inFlight.acquire();
+            started.incrementAndGet();
+            long sent = System.nanoTime();
+            CompletableFuture<HttpResponse<Void>> future =
+                client.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+            future.whenComplete((response, e) -> {
+                if (e != null || response.statusCode() != 200) {
+                    errors.incrementAndGet();
+                } else {
+                    int slot = recorded.getAndIncrement();
+                    if (slot < latencies.length) {
+                        latencies[slot] = (System.nanoTime() - sent) / 1000;
+                    }
+                }
+                inFlight.release();
+            });
+        }
+        // Drain the requests still in flight
+        inFlight.acquire(concurrency);
+        long elapsed = System.nanoTime() - start;
+
+        int count = Math.min(recorded.get(), latencies.length);
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        System.out.printf("%-20s concurrency %5d: %8.0f req/s, p50 %7.2f ms, p99 %8.2f ms, errors %d/%d%n",
+            URI.create(url).getPath(), concurrency, count / (elapsed / 1e9),
+            percentile(sorted, 0.50) / 1000.0, percentile(sorted, 0.99) / 1000.0,
+            errors.get(), started.get());
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(p * sorted.length))];
+    }
+}
@@ -0,0 +1,93 @@
+import com.example.workospoc.config.GroupRoleMapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Micro-benchmark for GroupRoleMapper.Rules with 1,000-group profiles
+ *
+ * Compares the compiled single-pass lookup against a naive evaluation that
+ * checks every rule against every group. Run with ./benchmark-group-mapping.sh.
+ */
+public class GroupRoleMappingBenchmark {
+
+    private static final List<String> ROLE_PRIORITY =
+        Arrays.asList("org_super", "org_managerplus", "org_manager", "org_support", "org_user");
+
+    public static void main(String[] args) {
+        int groupsPerProfile = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int ruleCount = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int profiles = 1000;
+        Random random = new Random(42);
+
+        Map<String, String> groupToRole = new HashMap<>();
+        List<String> mappedGroups = new ArrayList<>();
+        for (int i = 0; i < ruleCount; i++) {
+            String group = UUID.randomUUID().toString();
+            groupToRole.put(group, ROLE_PRIORITY.get(random.nextInt(ROLE_PRIORITY.size())));
+            mappedGroups.add(group);
+        }
+        GroupRoleMapper.Rules rules = GroupRoleMapper.Rules.compile(groupToRole, ROLE_PRIORITY);
+
+        // Each profile: mostly unmapped groups plus a few mapped ones at random positions,
+        // as fresh strings (as they arrive from the JSON profile, not the interned keys)
+        List<List<String>> groupClaims = new ArrayList<>();
+        for (int p = 0; p < profiles; p++) {
+            List<String> groups = new ArrayList<>(groupsPerProfile);
+            for (int g = 0; g < groupsPerProfile; g++) {
+                groups.add(UUID.randomUUID().toString());
+            }
+            for (int m = 0; m < 3; m++) {
+                groups.set(random.nextInt(groupsPerProfile), new String(mappedGroups.get(random.nextInt(ruleCount)).toCharArray()));
+            }
+            groupClaims.add(groups);
+        }
+
+        System.out.printf("Profiles with %d groups, %d rules%n", groupsPerProfile, ruleCount);
+        run("compiled single pass", groupClaims, claims -> rules.resolve(claims));
+        run("naive rule x group scan", groupClaims, claims -> naive(groupToRole, claims));
+    }
+
+    private static String naive(Map<String, String> groupToRole, List<String> groups) {
+        String best = null;
+        for (Map.Entry<String, String> rule : groupToRole.entrySet()) {
+            for (String group : groups) {
+                if (rule.getKey().equals(group)
+                        && (best == null || ROLE_PRIORITY.indexOf(rule.getValue()) < ROLE_PRIORITY.indexOf(best))) {
+                    best = rule.getValue();
+                }
+            }
+        }
+        return best;
+    }
+
+    private interface Resolver {
+        String resolve(List<String> groups);
+    }
+
+    private static void run(String name, List<List<String>> groupClaims, Resolver resolver) {
+        long sink = 0;
+        // Warm-up
+        for (int round = 0; round < 5; round++) {
+            for (List<String> claims : groupClaims) {
+                String role = resolver.resolve(claims);
+                sink += role != null ? role.length() : 0;
+            }
+        }
+        int rounds = 10;
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (List<String> claims : groupClaims) {
+                String role = resolver.resolve(claims);
+                sink += role != null ? role.length() : 0;
+            }
+        }
+        long nanosPerProfile = (System.nanoTime() - start) / ((long) rounds * groupClaims.size());
+        System.out.printf("  %-26s %,10d ns/profile  (sink %d)%n", name, nanosPerProfile, sink);
+    }
+}
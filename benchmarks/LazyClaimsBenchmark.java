@@ -0,0 +1,122 @@
+import com.example.workospoc.config.JwtUtil;
+import com.example.workospoc.config.JwtValidationResult;
+import com.example.workospoc.config.ReferenceTokenStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Time and allocation per request for token validation: jjwt's full parse vs
+ * LazyClaims
+ *
+ * Tokens carry the claims JwtUtil.generateTokenForWorkOSUser sets and are
+ * minted and validated with the shipped jwt.max-token-length. Each request
+ * validates the token and reads the claims JwtRequestFilter reads.
+ * Allocation is measured with the HotSpot per-thread allocation counter. Run
+ * with ./benchmark-lazy-claims.sh.
+ */
+public class LazyClaimsBenchmark {
+
+    private static final String SECRET = "myVeryLongAndSecureSecretKeyThatIsAtLeast256BitsLongForJWTTokenGeneration";
+
+    // jwt.max-token-length in application.yml
+    private static final int MAX_TOKEN_LENGTH = 8192;
+
+    private static final String[] FILTER_CLAIMS =
+        {"source", "role", "firstName", "lastName", "organizationId", "connectionId", "corpId", "jti"};
+
+    public static void main(String[] args) throws Exception {
+        int tokenCount = 2000;
+
+        JwtUtil eager = jwtUtil(false);
+        JwtUtil lazy = jwtUtil(true);
+
+        List<String> tokens = new ArrayList<>(tokenCount);
+        for (int i = 0; i < tokenCount; i++) {
+            tokens.add(eager.renewToken(ssoClaims(i)));
+        }
+
+        System.out.printf("%d SSO tokens (length %d, limit %d)%n", tokenCount, tokens.get(0).length(), MAX_TOKEN_LENGTH);
+        run("jjwt full parse", eager, tokens);
+        run("LazyClaims", lazy, tokens);
+    }
+
+    private static Claims ssoClaims(int user) {
+        Claims claims = Jwts.claims()
+            .setSubject("user" + user + "@example.com")
+            .setIssuedAt(new Date());
+        claims.put("role", "org_user");
+        claims.put("corpId", "corp1");
+        claims.put("source", "workos");
+        claims.put("profileId", "prof_01K8R9BKTPJWV123532JYJ5" + user);
+        claims.put("connectionId", "conn_benchmark");
+        claims.put("connectionType", "OktaSAML");
+        claims.put("firstName", "First" + user);
+        claims.put("lastName", "Last" + user);
+        claims.put("organizationId", "org_benchmark");
+        return claims;
+    }
+
+    private static JwtUtil jwtUtil(boolean lazyClaims) throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReferenceTokenStore store = new ReferenceTokenStore(null, new ObjectMapper(), registry);
+        JwtUtil jwtUtil = new JwtUtil(registry, store);
+        set(jwtUtil, "jwtSecret", SECRET);
+        set(jwtUtil, "jwtExpirationMs", 86_400_000);
+        set(jwtUtil, "maxTokenLength", MAX_TOKEN_LENGTH);
+        set(jwtUtil, "maxSessionMs", 604_800_000L);
+        set(jwtUtil, "tokenMode", "jwt");
+        set(jwtUtil, "fastSignerEnabled", true);
+        set(jwtUtil, "lazyClaimsEnabled", lazyClaims);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    private static void set(Object target, String field, Object value) throws Exception {
+        Field f = target.getClass().getDeclaredField(field);
+        f.setAccessible(true);
+        f.set(target, value);
+    }
+
+    private static long request(JwtUtil jwtUtil, String token) {
+        JwtValidationResult result = jwtUtil.validate(token);
+        long sink = result.getClaims().getSubject().length() + result.getClaims().getExpiration().getTime();
+        for (String name : FILTER_CLAIMS) {
+            String value = result.getString(name);
+            sink += value != null ? value.length() : 0;
+        }
+        return sink;
+    }
+
+    private static void run(String name, JwtUtil jwtUtil, List<String> tokens) {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long sink = 0;
+        // Warm-up
+        for (int round = 0; round < 10; round++) {
+            for (String token : tokens) {
+                sink += request(jwtUtil, token);
+            }
+        }
+        int rounds = 10;
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (String token : tokens) {
+                sink += request(jwtUtil, token);
+            }
+        }
+        long requests = (long) rounds * tokens.size();
+        long nanos = (System.nanoTime() - start) / requests;
+        long bytes = (threads.getThreadAllocatedBytes(threadId) - allocatedBefore) / requests;
+        System.out.printf("  %-16s %,8d ns/request %,10d bytes/request  (sink %d)%n", name, nanos, bytes, sink);
+    }
+}
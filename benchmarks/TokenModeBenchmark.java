@@ -0,0 +1,103 @@
+import com.example.workospoc.config.JwtUtil;
+import com.example.workospoc.config.ReferenceTokenStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Micro-benchmark for request authentication cost in the two token modes
+ *
+ * Validates SSO tokens carrying the claims JwtUtil.generateTokenForWorkOSUser
+ * sets through JwtUtil.validate, with the shipped jwt.max-token-length, once
+ * as signed JWTs and once as reference handles. Run with
+ * ./benchmark-token-modes.sh.
+ */
+public class TokenModeBenchmark {
+
+    private static final String SECRET = "myVeryLongAndSecureSecretKeyThatIsAtLeast256BitsLongForJWTTokenGeneration";
+
+    // jwt.max-token-length in application.yml
+    private static final int MAX_TOKEN_LENGTH = 8192;
+
+    public static void main(String[] args) throws Exception {
+        int tokenCount = 10000;
+
+        JwtUtil jwtMode = jwtUtil("jwt");
+        JwtUtil referenceMode = jwtUtil("reference");
+
+        List<String> jwts = new ArrayList<>(tokenCount);
+        List<String> handles = new ArrayList<>(tokenCount);
+        for (int i = 0; i < tokenCount; i++) {
+            Claims claims = ssoClaims(i);
+            jwts.add(jwtMode.renewToken(claims));
+            handles.add(referenceMode.renewToken(claims));
+        }
+
+        System.out.printf("%d SSO tokens (JWT length %d, limit %d)%n", tokenCount, jwts.get(0).length(), MAX_TOKEN_LENGTH);
+        run("jwt (HMAC + JSON parse)", jwtMode, jwts);
+        run("reference (map lookup)", referenceMode, handles);
+    }
+
+    private static Claims ssoClaims(int i) {
+        Claims claims = Jwts.claims()
+            .setSubject("user" + i + "@example.com")
+            .setIssuedAt(new Date());
+        claims.put("role", "org_user");
+        claims.put("corpId", "corp1");
+        claims.put("source", "workos");
+        claims.put("profileId", "prof_01K8R9BKTPJWV123532JYJ5" + i);
+        claims.put("connectionId", "conn_benchmark");
+        claims.put("connectionType", "OktaSAML");
+        claims.put("firstName", "First" + i);
+        claims.put("lastName", "Last" + i);
+        claims.put("organizationId", "org_benchmark");
+        return claims;
+    }
+
+    private static JwtUtil jwtUtil(String mode) throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReferenceTokenStore store = new ReferenceTokenStore(null, new ObjectMapper(), registry);
+        set(store, "maxEntries", 1_000_000);
+        store.init();
+
+        JwtUtil jwtUtil = new JwtUtil(registry, store);
+        set(jwtUtil, "jwtSecret", SECRET);
+        set(jwtUtil, "jwtExpirationMs", 86_400_000);
+        set(jwtUtil, "maxTokenLength", MAX_TOKEN_LENGTH);
+        set(jwtUtil, "maxSessionMs", 604_800_000L);
+        set(jwtUtil, "tokenMode", mode);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    private static void set(Object target, String field, Object value) throws Exception {
+        Field f = target.getClass().getDeclaredField(field);
+        f.setAccessible(true);
+        f.set(target, value);
+    }
+
+    private static void run(String name, JwtUtil jwtUtil, List<String> tokens) {
+        long sink = 0;
+        // Warm-up
+        for (int round = 0; round < 5; round++) {
+            for (String token : tokens) {
+                sink += jwtUtil.validate(token).isValid() ? 1 : 0;
+            }
+        }
+        int rounds = 10;
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (String token : tokens) {
+                sink += jwtUtil.validate(token).isValid() ? 1 : 0;
+            }
+        }
+        long nanosPerToken = (System.nanoTime() - start) / ((long) rounds * tokens.size());
+        System.out.printf("  %-26s %,10d ns/request  (valid %d)%n", name, nanosPerToken, sink);
+    }
+}
@@ -0,0 +1,151 @@
+import com.example.workospoc.config.UserPrincipal;
+import com.example.workospoc.config.UserStore;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.io.BufferedReader;
+import java.io.Reader;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Local-login user lookup latency with 1M users in the embedded H2 store
+ *
+ * Creates the app_user table from schema.sql in an in-memory H2 database (or
+ * a file database, as in application.yml), bulk imports the users through
+ * UserStore.importCsv, then times UserStore.findByUsername for random
+ * existing and unknown usernames, single-threaded and from 8 threads. Run
+ * with ./benchmark-user-store.sh.
+ */
+public class UserStoreLookupBenchmark {
+
+    // Every user gets the same (pre-encoded) BCrypt hash; only the lookup is measured
+    private static final String PASSWORD_HASH = "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3M4KDnYvnmwzS1Rzvh5.Zs2";
+
+    public static void main(String[] args) throws Exception {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        String url = args.length > 2 && "file".equals(args[2])
+            ? "jdbc:h2:file:./target/benchmark-users;DB_CLOSE_ON_EXIT=FALSE"
+            : "jdbc:h2:mem:benchmark-users;DB_CLOSE_DELAY=-1";
+
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        dataSource.setMaximumPoolSize(10);
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+
+        UserStore store = new UserStore(new JdbcTemplate(dataSource));
+        set(store, "batchSize", 1000);
+
+        long start = System.nanoTime();
+        long imported = store.importCsv(new BufferedReader(new GeneratedUsers(users)));
+        System.out.printf("Imported %d users in %.1f s (%s)%n", imported, (System.nanoTime() - start) / 1e9, url);
+
+        // Warm up the JIT, the pool and H2's page cache
+        lookup(store, users, 50_000, new Random(1), true);
+
+        System.out.printf("%d lookups per run%n", lookups);
+        report("existing users, 1 thread", lookup(store, users, lookups, new Random(42), true));
+        report("unknown users, 1 thread", lookup(store, users, lookups, new Random(43), false));
+
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        Future<?>[] runs = new Future<?>[8];
+        long[][] results = new long[8][];
+        start = System.nanoTime();
+        for (int t = 0; t < runs.length; t++) {
+            int thread = t;
+            runs[t] = threads.submit(() -> results[thread] = lookup(store, users, lookups / 8, new Random(100 + thread), true));
+        }
+        for (Future<?> run : runs) {
+            run.get();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        threads.shutdown();
+        long[] all = Arrays.stream(results).flatMapToLong(Arrays::stream).toArray();
+        report("existing users, 8 threads", all);
+        System.out.printf("%-28s %10.0f lookups/s%n", "8-thread throughput", all.length / elapsed);
+
+        dataSource.close();
+    }
+
+    /**
+     * Latencies in nanoseconds of lookups for random usernames
+     */
+    private static long[] lookup(UserStore store, int users, int lookups, Random random, boolean existing) {
+        long[] latencies = new long[lookups];
+        for (int i = 0; i < lookups; i++) {
+            String username = existing ? username(random.nextInt(users)) : "missing" + random.nextInt() + "@example.com";
+            long start = System.nanoTime();
+            UserPrincipal user = store.findByUsername(username);
+            latencies[i] = System.nanoTime() - start;
+            if ((user != null) != existing) {
+                throw new IllegalStateException("Unexpected lookup result for " + username);
+            }
+        }
+        return latencies;
+    }
+
+    private static void report(String label, long[] latencies) {
+        Arrays.sort(latencies);
+        System.out.printf("%-28s p50 %7.1f us, p99 %7.1f us, p99.9 %8.1f us%n", label,
+            latencies[latencies.length / 2] / 1e3,
+            latencies[(int) (latencies.length * 0.99)] / 1e3,
+            latencies[(int) (latencies.length * 0.999)] / 1e3);
+    }
+
+    private static String username(int i) {
+        return "user" + i + "@example.com";
+    }
+
+    /**
+     * username,passwordHash,corpId,role lines generated on the fly, so 1M
+     * users are never held in memory before the import
+     */
+    private static final class GeneratedUsers extends Reader {
+        private final int users;
+        private int next;
+        private final StringBuilder buffer = new StringBuilder();
+        private int position;
+
+        GeneratedUsers(int users) {
+            this.users = users;
+        }
+
+        @Override
+        public int read(char[] target, int offset, int length) {
+            if (position == buffer.length()) {
+                if (next == users) {
+                    return -1;
+                }
+                buffer.setLength(0);
+                position = 0;
+                for (int i = 0; i < 1000 && next < users; i++, next++) {
+                    buffer.append(username(next)).append(',').append(PASSWORD_HASH).append(",corp")
+                        .append(next % 500).append(",org_user\n");
+                }
+            }
+            int n = Math.min(length, buffer.length() - position);
+            buffer.getChars(position, position + n, target, offset);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static void set(Object target, String field, Object value) throws Exception {
+        Field f = target.getClass().getDeclaredField(field);
+        f.setAccessible(true);
+        f.set(target, value);
+    }
+}
@@ -0,0 +1,43 @@
+#!/bin/bash
+
+# Build an AppCDS (Class Data Sharing) archive for faster startup
+#
+# Requires JDK 13+ at runtime (dynamic archiving via -XX:ArchiveClassesAtExit).
+# CDS cannot archive classes loaded from nested jars, so the Spring Boot jar is
+# unpacked and started with a plain classpath of jars. The training run starts the app
+# with the fast-startup profile and exits as soon as it is ready.
+
+APP_JAR=target/workos-poc-1.0.0.jar
+APP_DIR=target/cds-app
+ARCHIVE=target/app-cds.jsa
+MAIN_CLASS=com.example.workospoc.WorkosPocApplication
+
+echo "Building Spring Boot application..."
+mvn clean package -DskipTests -q
+if [ $? -ne 0 ]; then
+    echo "Build failed. Please check the errors above."
+    exit 1
+fi
+
+echo "Unpacking $APP_JAR into $APP_DIR..."
+rm -rf "$APP_DIR" && mkdir -p "$APP_DIR"
+(cd "$APP_DIR" && jar xf "../../$APP_JAR")
+# CDS only accepts jars on the classpath, so repackage the application classes
+jar cf "$APP_DIR/app.jar" -C "$APP_DIR/BOOT-INF/classes" .
+CLASSPATH="$APP_DIR/app.jar:$APP_DIR/BOOT-INF/lib/*"
+
+echo "Training run (writes $ARCHIVE)..."
+java -XX:ArchiveClassesAtExit="$ARCHIVE" -cp "$CLASSPATH" "$MAIN_CLASS" \
+    --spring.profiles.active=fast-startup \
+    --startup.exit-after-ready=true \
+    --server.port=0
+
+if [ ! -f "$ARCHIVE" ]; then
+    echo "Archive was not created. Check that the JDK is 13 or newer."
+    exit 1
+fi
+
+echo ""
+echo "Archive created: $ARCHIVE"
+echo "Start with:"
+echo "  java -XX:SharedArchiveFile=$ARCHIVE -cp \"$CLASSPATH\" $MAIN_CLASS --spring.profiles.active=fast-startup"
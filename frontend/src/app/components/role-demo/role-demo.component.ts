@@ -10,6 +10,7 @@ import { AuthService } from '../../services/auth.service';
 export class RoleDemoComponent implements OnInit {
   currentUser: any = null;
   apiResults: any = {};
+  capabilities: { [probe: string]: boolean } | null = null;
   isLoading = false;
 
   constructor(
@@ -20,9 +21,33 @@ export class RoleDemoComponent implements OnInit {
   ngOnInit() {
     this.authService.currentUser$.subscribe(user => {
       this.currentUser = user;
+      this.loadCapabilities();
     });
   }
 
+  // One request for all demo permissions, evaluated with the backend's own rules
+  loadCapabilities() {
+    const token = this.authService.getToken();
+    if (!this.currentUser || !token) {
+      this.capabilities = null;
+      return;
+    }
+
+    const headers = new HttpHeaders({
+      'Authorization': `Bearer ${token}`
+    });
+
+    this.http.get<{ [probe: string]: boolean }>('http://localhost:8081/api/demo/capabilities', { headers })
+      .subscribe({
+        next: (capabilities) => {
+          this.capabilities = capabilities;
+        },
+        error: () => {
+          this.capabilities = null;
+        }
+      });
+  }
+
   testEndpoint(endpoint: string) {
     this.isLoading = true;
     const token = this.authService.getToken();
@@ -52,6 +77,9 @@ export class RoleDemoComponent implements OnInit {
 
   canAccess(role: string): boolean {
     if (!this.currentUser) return false;
+    if (this.capabilities && role in this.capabilities) {
+      return this.capabilities[role];
+    }
     
     switch (role) {
       case 'admin':
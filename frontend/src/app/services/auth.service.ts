@@ -12,6 +12,11 @@ export class AuthService {
   private currentUserSubject = new BehaviorSubject<User | null>(null);
   public currentUser$ = this.currentUserSubject.asObservable();
 
+  // Silent renewal starts at a random point in the last RENEW_WINDOW_MS of a token's
+  // lifetime (matching jwt.renewal.window-ms), so open tabs do not all renew at once
+  private readonly RENEW_WINDOW_MS = 6 * 60 * 60 * 1000;
+  private renewTimer: any = null;
+
   constructor(private http: HttpClient) {
     // Check for existing token on service initialization
     this.checkAuthStatus();
@@ -46,6 +51,7 @@ export class AuthService {
   }
 
   logout(): void {
+    this.cancelRenewal();
     localStorage.removeItem('token');
     this.currentUserSubject.next(null);
   }
@@ -56,10 +62,72 @@ export class AuthService {
 
   setToken(token: string): void {
     localStorage.setItem('token', token);
+    this.scheduleRenewal(token);
     // Automatically fetch user details when token is set
     this.fetchCurrentUser();
   }
 
+  // Reissue the token shortly before it expires, without a new SSO login
+  renewToken(): void {
+    const token = this.getToken();
+    if (!token) {
+      return;
+    }
+
+    const headers = new HttpHeaders({
+      'Authorization': `Bearer ${token}`
+    });
+
+    this.http.post<any>(`${this.API_URL}/auth/token/renew`, null, { headers })
+      .subscribe({
+        next: (response) => {
+          if (response.renewed && response.token) {
+            localStorage.setItem('token', response.token);
+            this.scheduleRenewal(response.token);
+          } else {
+            // Not yet inside the server's renewal window (e.g. clock skew); try again later
+            this.cancelRenewal();
+            this.renewTimer = setTimeout(() => this.renewToken(), 5 * 60 * 1000);
+          }
+        },
+        error: (error) => {
+          // The current token stays usable until it expires; the next request then requires a login
+          console.warn('Token renewal failed:', error);
+        }
+      });
+  }
+
+  private scheduleRenewal(token: string): void {
+    this.cancelRenewal();
+    const expiresAt = this.getTokenExpiry(token);
+    if (!expiresAt) {
+      return;
+    }
+
+    const renewFrom = expiresAt - this.RENEW_WINDOW_MS;
+    const renewAt = renewFrom + Math.random() * this.RENEW_WINDOW_MS * 0.5;
+    const delay = Math.max(0, renewAt - Date.now());
+    // setTimeout overflows above ~24.8 days
+    this.renewTimer = setTimeout(() => this.renewToken(), Math.min(delay, 2147483647));
+  }
+
+  private cancelRenewal(): void {
+    if (this.renewTimer) {
+      clearTimeout(this.renewTimer);
+      this.renewTimer = null;
+    }
+  }
+
+  private getTokenExpiry(token: string): number | null {
+    try {
+      const payload = token.split('.')[1].replace(/-/g, '+').replace(/_/g, '/');
+      const claims = JSON.parse(atob(payload));
+      return typeof claims.exp === 'number' ? claims.exp * 1000 : null;
+    } catch {
+      return null;
+    }
+  }
+
   isAuthenticated(): boolean {
     const token = this.getToken();
     return !!token;
@@ -87,6 +155,7 @@ export class AuthService {
 
   private checkAuthStatus(): void {
     if (this.isAuthenticated()) {
+      this.scheduleRenewal(this.getToken()!);
       this.fetchCurrentUser();
     }
   }
@@ -2,8 +2,10 @@ package com.example.workospoc;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class WorkosPocApplication {
     public static void main(String[] args) {
         SpringApplication.run(WorkosPocApplication.class, args);
@@ -0,0 +1,45 @@
+package com.example.workospoc.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Static API keys for operator and service endpoints outside the user login
+ * flows (token introspection, tenant statistics)
+ *
+ * Keys come from a comma-separated property; an empty list matches nothing,
+ * which leaves the endpoint disabled. Every key is compared in constant time.
+ */
+public final class ApiKeys {
+
+    private final List<byte[]> keys = new ArrayList<>();
+
+    public ApiKeys(String spec) {
+        for (String key : spec.split(",")) {
+            if (!key.trim().isEmpty()) {
+                keys.add(key.trim().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return keys.isEmpty();
+    }
+
+    /**
+     * Whether the presented key (a request header, possibly missing) is one of the configured keys
+     */
+    public boolean matches(String presented) {
+        if (presented == null) {
+            return false;
+        }
+        byte[] bytes = presented.getBytes(StandardCharsets.UTF_8);
+        boolean match = false;
+        for (byte[] key : keys) {
+            match |= MessageDigest.isEqual(key, bytes);
+        }
+        return match;
+    }
+}
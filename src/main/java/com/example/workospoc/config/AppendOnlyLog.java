@@ -0,0 +1,159 @@
+package com.example.workospoc.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Line-oriented append-only file with an optional format header, reloaded at
+ * startup and compacted by rewriting it with only the live lines
+ *
+ * Shared by TokenRevocationRegistry and IdentityResolutionCache. Callers own
+ * the line format and decide what is live; this class owns the file, the
+ * appender and the atomic tmp-file swap. Appends and compaction are
+ * serialized by a lock (not a monitor, so callers on virtual threads do not
+ * pin their carrier).
+ */
+public class AppendOnlyLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppendOnlyLog.class);
+
+    private final Path path;
+    private final String header;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Writer appender;
+    private int appendedSinceCompaction;
+
+    /**
+     * @param file   file location, parent directories are created on compaction
+     * @param header first line of the file, or null for a file without one
+     */
+    public AppendOnlyLog(String file, String header) {
+        this.path = Paths.get(file);
+        this.header = header;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Feed every line of an existing file to a loader; a file whose header
+     * does not match is ignored
+     *
+     * @return number of lines the loader rejected
+     */
+    public int load(Predicate<String> loader) {
+        int rejected = 0;
+        if (!Files.exists(path)) {
+            return rejected;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            if (header != null) {
+                String first = reader.readLine();
+                if (!header.equals(first)) {
+                    logger.warn("Ignoring {} with unknown format: {}", path, first);
+                    return rejected;
+                }
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!loader.test(line)) {
+                    rejected++;
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not read {}: {}", path, e.getMessage());
+        }
+        return rejected;
+    }
+
+    /**
+     * Append one line (without its terminator) and flush it; dropped when the file is not open
+     */
+    public void append(String line) throws IOException {
+        lock.lock();
+        try {
+            if (appender != null) {
+                appender.write(line);
+                appender.write('\n');
+                appender.flush();
+                appendedSinceCompaction++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lines appended since the file was last rewritten
+     */
+    public int appendedSinceCompaction() {
+        lock.lock();
+        try {
+            return appendedSinceCompaction;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rewrite the file with only the given lines and reopen it for appending
+     */
+    public void compact(Iterable<String> liveLines) throws IOException {
+        lock.lock();
+        try {
+            close();
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                if (header != null) {
+                    writer.write(header + "\n");
+                }
+                for (String line : liveLines) {
+                    writer.write(line + "\n");
+                }
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            appendedSinceCompaction = 0;
+
+            appender = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void close() {
+        lock.lock();
+        try {
+            if (appender != null) {
+                try {
+                    appender.close();
+                } catch (IOException e) {
+                    logger.debug("Error closing {}: {}", path, e.getMessage());
+                }
+                appender = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
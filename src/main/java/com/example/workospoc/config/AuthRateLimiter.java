@@ -0,0 +1,145 @@
+package com.example.workospoc.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for the unauthenticated login and SSO callback endpoints
+ *
+ * Local login and the callback are limited per client IP; the callback is
+ * additionally limited per WorkOS connectionId once the profile is known, so
+ * a flood against one connection cannot amplify into corp-mapping calls.
+ */
+@Component
+public class AuthRateLimiter {
+
+    private static final byte[] TOO_MANY_REQUESTS_BODY =
+        "{\"error\":\"too_many_requests\",\"message\":\"Too many requests, please retry later\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Value("${security.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${security.rate-limit.max-keys:100000}")
+    private int maxKeys;
+
+    @Value("${security.rate-limit.login.per-second:5}")
+    private double loginPerSecond;
+
+    @Value("${security.rate-limit.login.burst:10}")
+    private int loginBurst;
+
+    @Value("${security.rate-limit.callback.per-second:10}")
+    private double callbackPerSecond;
+
+    @Value("${security.rate-limit.callback.burst:20}")
+    private int callbackBurst;
+
+    @Value("${security.rate-limit.connection.per-second:200}")
+    private double connectionPerSecond;
+
+    @Value("${security.rate-limit.connection.burst:400}")
+    private int connectionBurst;
+
+    private final MeterRegistry meterRegistry;
+
+    private RateLimiter loginLimiter;
+    private RateLimiter callbackLimiter;
+    private RateLimiter connectionLimiter;
+
+    private Counter loginRejected;
+    private Counter callbackRejected;
+    private Counter connectionRejected;
+
+    public AuthRateLimiter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        loginLimiter = new RateLimiter(loginPerSecond, loginBurst, maxKeys);
+        callbackLimiter = new RateLimiter(callbackPerSecond, callbackBurst, maxKeys);
+        connectionLimiter = new RateLimiter(connectionPerSecond, connectionBurst, maxKeys);
+
+        loginRejected = rejectedCounter("login");
+        callbackRejected = rejectedCounter("callback");
+        connectionRejected = rejectedCounter("connection");
+
+        Gauge.builder("auth.ratelimit.keys", loginLimiter, RateLimiter::size).tag("scope", "login").register(meterRegistry);
+        Gauge.builder("auth.ratelimit.keys", callbackLimiter, RateLimiter::size).tag("scope", "callback").register(meterRegistry);
+        Gauge.builder("auth.ratelimit.keys", connectionLimiter, RateLimiter::size).tag("scope", "connection").register(meterRegistry);
+    }
+
+    private Counter rejectedCounter(String scope) {
+        return Counter.builder("auth.ratelimit.rejected")
+            .description("Requests rejected with 429 by the auth rate limiter")
+            .tag("scope", scope)
+            .register(meterRegistry);
+    }
+
+    /**
+     * @return 0 if allowed, otherwise nanoseconds until the client may retry
+     */
+    public long tryAcquireLogin(String clientIp) {
+        return acquire(loginLimiter, loginRejected, clientIp);
+    }
+
+    public long tryAcquireCallback(String clientIp) {
+        return acquire(callbackLimiter, callbackRejected, clientIp);
+    }
+
+    public long tryAcquireConnection(String connectionId) {
+        return acquire(connectionLimiter, connectionRejected, connectionId);
+    }
+
+    private long acquire(RateLimiter limiter, Counter rejected, String key) {
+        if (!enabled || key == null) {
+            return 0;
+        }
+        long retryAfterNanos = limiter.tryAcquire(key);
+        if (retryAfterNanos > 0) {
+            rejected.increment();
+        }
+        return retryAfterNanos;
+    }
+
+    /**
+     * Write a 429 response with a Retry-After header (whole seconds, rounded up)
+     */
+    public static void reject(HttpServletResponse response, long retryAfterNanos) throws IOException {
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds(retryAfterNanos)));
+        response.setContentType("application/json");
+        response.setContentLength(TOO_MANY_REQUESTS_BODY.length);
+        response.getOutputStream().write(TOO_MANY_REQUESTS_BODY);
+    }
+
+    /**
+     * WebFlux counterpart of reject(HttpServletResponse, long)
+     */
+    public static Mono<Void> reject(ServerHttpResponse response, long retryAfterNanos) {
+        response.setRawStatusCode(429);
+        HttpHeaders headers = response.getHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds(retryAfterNanos)));
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setContentLength(TOO_MANY_REQUESTS_BODY.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(TOO_MANY_REQUESTS_BODY)));
+    }
+
+    private static long retryAfterSeconds(long retryAfterNanos) {
+        return Math.max(1, (retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+}
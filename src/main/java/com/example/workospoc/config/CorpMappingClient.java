@@ -0,0 +1,227 @@
+package com.example.workospoc.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * HTTP client for the corp-mapping service (your system's user/account API)
+ *
+ * Per-user lookups are used on the SSO callback path; the paged bulk read and
+ * the change feed are used by CorpMappingSynchronizer to keep an in-memory
+ * organization -> corpId index. Endpoint paths come from corp.mapping.api.paths.
+ */
+@Component
+public class CorpMappingClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(CorpMappingClient.class);
+
+    private final RestTemplate restTemplate;
+    private final WorkOSConfig workOSConfig;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public CorpMappingClient(RestTemplate restTemplate, WorkOSConfig workOSConfig) {
+        this.restTemplate = restTemplate;
+        this.workOSConfig = workOSConfig;
+    }
+
+    /**
+     * Look up a user's corpId; accepts corpId, corp_id, accountId or data.corpId
+     *
+     * @return the corpId, or null if the response does not contain one
+     */
+    public String fetchUserCorpId(String organizationId, String email) throws IOException {
+        return corpIdFrom(get(userCorpIdPathAndQuery(workOSConfig, organizationId, email)));
+    }
+
+    /**
+     * Shared with ReactiveCorpMappingClient
+     */
+    static String userCorpIdPathAndQuery(WorkOSConfig workOSConfig, String organizationId, String email)
+            throws UnsupportedEncodingException {
+        return workOSConfig.getCorpMappingUserCorpIdPath()
+            + "?organizationId=" + encode(organizationId) + "&email=" + encode(email);
+    }
+
+    /**
+     * Shared with ReactiveCorpMappingClient
+     *
+     * @return the corpId in a /api/user/corpId response, or null
+     */
+    static String corpIdFrom(JsonNode jsonNode) {
+        if (jsonNode == null) {
+            return null;
+        }
+        JsonNode corpIdNode = jsonNode.get("corpId");
+        if (corpIdNode == null) {
+            corpIdNode = jsonNode.get("corp_id");
+        }
+        if (corpIdNode == null) {
+            corpIdNode = jsonNode.get("accountId");
+        }
+        if (corpIdNode == null) {
+            JsonNode dataNode = jsonNode.get("data");
+            if (dataNode != null && dataNode.isObject()) {
+                corpIdNode = dataNode.get("corpId");
+            }
+        }
+        return corpIdNode != null ? corpIdNode.asText() : null;
+    }
+
+    /**
+     * Look up a user's role; accepts role, userRole or data.role
+     *
+     * @return the role, or null if the response does not contain one
+     */
+    public String fetchUserRole(String organizationId, String email) throws IOException {
+        JsonNode jsonNode = get(workOSConfig.getCorpMappingUserRolePath() + "?organizationId=" + encode(organizationId) + "&email=" + encode(email));
+        if (jsonNode == null) {
+            return null;
+        }
+        JsonNode roleNode = jsonNode.get("role");
+        if (roleNode == null) {
+            roleNode = jsonNode.get("userRole");
+        }
+        if (roleNode == null) {
+            roleNode = jsonNode.get("data");
+            if (roleNode != null && roleNode.isObject()) {
+                roleNode = roleNode.get("role");
+            }
+        }
+        return roleNode != null ? roleNode.asText() : null;
+    }
+
+    /**
+     * True if the service provides the bulk mapping read (corp.mapping.api.paths.mappings)
+     */
+    public boolean supportsMappingSync() {
+        String path = workOSConfig.getCorpMappingMappingsPath();
+        return path != null && !path.isEmpty();
+    }
+
+    /**
+     * True if the service provides the change feed (corp.mapping.api.paths.mapping-changes)
+     */
+    public boolean supportsMappingChanges() {
+        String path = workOSConfig.getCorpMappingChangesPath();
+        return path != null && !path.isEmpty();
+    }
+
+    /**
+     * Read one page of the full organization -> corpId mapping
+     *
+     * Expected response: {"items":[{"organizationId":"...","corpId":"..."}],
+     * "hasMore":true, "cursor":"..."}, where cursor marks the point the change
+     * feed should resume from.
+     */
+    public MappingPage fetchMappingPage(int page, int size) throws IOException {
+        return toPage(get(workOSConfig.getCorpMappingMappingsPath() + "?page=" + page + "&size=" + size), false);
+    }
+
+    /**
+     * Read mapping changes after a cursor
+     *
+     * Expected response: {"items":[{"organizationId":"...","corpId":"...",
+     * "deleted":false}], "hasMore":false, "cursor":"..."}
+     */
+    public MappingPage fetchMappingChanges(String cursor) throws IOException {
+        return toPage(get(workOSConfig.getCorpMappingChangesPath() + "?since=" + encode(cursor)), true);
+    }
+
+    private MappingPage toPage(JsonNode jsonNode, boolean withDeletes) {
+        if (jsonNode == null) {
+            throw new IllegalStateException("Empty response from corp-mapping service");
+        }
+        JsonNode items = jsonNode.path("items");
+        List<MappingEntry> entries = new ArrayList<>(items.size());
+        for (JsonNode item : items) {
+            String organizationId = item.path("organizationId").asText(null);
+            if (organizationId == null) {
+                continue;
+            }
+            boolean deleted = withDeletes && item.path("deleted").asBoolean(false);
+            entries.add(new MappingEntry(organizationId, deleted ? null : item.path("corpId").asText(null)));
+        }
+        return new MappingPage(entries, jsonNode.path("hasMore").asBoolean(false), jsonNode.path("cursor").asText(null));
+    }
+
+    private JsonNode get(String pathAndQuery) throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        String apiKey = workOSConfig.getCorpMappingApiKey();
+        if (apiKey != null && !apiKey.isEmpty()) {
+            headers.set("Authorization", "Bearer " + apiKey);
+        }
+        headers.set("Content-Type", "application/json");
+
+        ResponseEntity<String> response = restTemplate.exchange(
+            workOSConfig.getCorpMappingApiBaseUrl() + pathAndQuery, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            logger.warn("System API returned non-success status: {}", response.getStatusCode());
+            return null;
+        }
+        return objectMapper.readTree(response.getBody());
+    }
+
+    private static String encode(String value) throws UnsupportedEncodingException {
+        return URLEncoder.encode(value, "UTF-8");
+    }
+
+    /**
+     * One organization's mapping; corpId is null for a deletion
+     */
+    public static final class MappingEntry {
+        private final String organizationId;
+        private final String corpId;
+
+        MappingEntry(String organizationId, String corpId) {
+            this.organizationId = organizationId;
+            this.corpId = corpId;
+        }
+
+        public String getOrganizationId() {
+            return organizationId;
+        }
+
+        public String getCorpId() {
+            return corpId;
+        }
+    }
+
+    public static final class MappingPage {
+        private final List<MappingEntry> entries;
+        private final boolean hasMore;
+        private final String cursor;
+
+        MappingPage(List<MappingEntry> entries, boolean hasMore, String cursor) {
+            this.entries = Collections.unmodifiableList(entries);
+            this.hasMore = hasMore;
+            this.cursor = cursor;
+        }
+
+        public List<MappingEntry> getEntries() {
+            return entries;
+        }
+
+        public boolean hasMore() {
+            return hasMore;
+        }
+
+        public String getCursor() {
+            return cursor;
+        }
+    }
+}
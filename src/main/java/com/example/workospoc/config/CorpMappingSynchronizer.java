@@ -0,0 +1,213 @@
+package com.example.workospoc.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory organization -> corpId index, kept in sync with the corp-mapping
+ * service in the background
+ *
+ * The full mapping is loaded with paged bulk reads shortly after startup and
+ * periodically re-loaded; in between, the change feed is applied as deltas.
+ * A service without a change feed (no cursor returned) is only re-loaded
+ * every full-reload-interval-ms. SSO callbacks resolve corpId from this index
+ * instead of calling the corp-mapping service on the login path. If the
+ * service is unreachable the last snapshot keeps being served and retries
+ * back off up to max-backoff-ms. Syncs run on their own thread, so a slow
+ * load never delays other scheduled work. Nothing runs while
+ * corp.mapping.api.paths.mappings is not configured.
+ */
+@Component
+public class CorpMappingSynchronizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(CorpMappingSynchronizer.class);
+
+    @Value("${corp.mapping.sync.enabled:true}")
+    private boolean enabled;
+
+    @Value("${corp.mapping.sync.page-size:1000}")
+    private int pageSize;
+
+    @Value("${corp.mapping.sync.full-reload-interval-ms:3600000}")
+    private long fullReloadIntervalMs;
+
+    @Value("${corp.mapping.sync.initial-delay-ms:0}")
+    private long initialDelayMs;
+
+    @Value("${corp.mapping.sync.delta-interval-ms:30000}")
+    private long deltaIntervalMs;
+
+    @Value("${corp.mapping.sync.max-backoff-ms:600000}")
+    private long maxBackoffMs;
+
+    private final CorpMappingClient corpMappingClient;
+
+    private volatile Map<String, String> corpIdsByOrganization;
+    private volatile String cursor;
+    private volatile long lastFullLoadMillis;
+    private volatile long lastSyncMillis;
+    private int consecutiveFailures;
+    private ScheduledExecutorService executor;
+
+    public CorpMappingSynchronizer(CorpMappingClient corpMappingClient, MeterRegistry meterRegistry) {
+        this.corpMappingClient = corpMappingClient;
+        Gauge.builder("corp.mapping.snapshot.size", this, s -> s.size()).register(meterRegistry);
+        Gauge.builder("corp.mapping.snapshot.age.seconds", this, CorpMappingSynchronizer::snapshotAgeSeconds)
+            .description("Seconds since the organization -> corpId index was last synced (NaN before the first load)")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @return the corpId for an organization, or null if unknown or not yet loaded
+     */
+    public String getCorpId(String organizationId) {
+        Map<String, String> index = corpIdsByOrganization;
+        return index != null && organizationId != null ? index.get(organizationId) : null;
+    }
+
+    public boolean isLoaded() {
+        return corpIdsByOrganization != null;
+    }
+
+    public int size() {
+        Map<String, String> index = corpIdsByOrganization;
+        return index != null ? index.size() : 0;
+    }
+
+    private double snapshotAgeSeconds() {
+        long last = lastSyncMillis;
+        return last == 0 ? Double.NaN : (System.currentTimeMillis() - last) / 1000.0;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (!corpMappingClient.supportsMappingSync()) {
+            logger.info("Corp mapping sync off: corp.mapping.api.paths.mappings is not configured");
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "corp-mapping-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.schedule(this::syncAndReschedule, initialDelayMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void syncAndReschedule() {
+        long delayMs = deltaIntervalMs;
+        try {
+            delayMs = sync();
+        } finally {
+            if (!executor.isShutdown()) {
+                executor.schedule(this::syncAndReschedule, delayMs, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Full load when there is no snapshot (or it is due for a reload),
+     * otherwise apply deltas since the last cursor
+     *
+     * @return milliseconds until the next sync
+     */
+    long sync() {
+        long now = System.currentTimeMillis();
+        try {
+            if (corpIdsByOrganization == null || now - lastFullLoadMillis >= fullReloadIntervalMs) {
+                fullLoad();
+            } else if (cursor != null) {
+                applyDeltas();
+            }
+            lastSyncMillis = System.currentTimeMillis();
+            consecutiveFailures = 0;
+        } catch (Exception e) {
+            // Log the first failure of a streak at WARN, repeats at DEBUG
+            if (consecutiveFailures == 0) {
+                logger.warn("Corp mapping sync failed, serving {} snapshot: {}",
+                    isLoaded() ? "last" : "no", e.getMessage());
+            } else {
+                logger.debug("Corp mapping sync failed again: {}", e.getMessage());
+            }
+            consecutiveFailures++;
+            return Math.min(deltaIntervalMs << Math.min(consecutiveFailures - 1, 16), maxBackoffMs);
+        }
+        if (cursor == null) {
+            // No change feed: nothing to poll until the next full reload
+            return Math.max(lastFullLoadMillis + fullReloadIntervalMs - System.currentTimeMillis(), deltaIntervalMs);
+        }
+        return deltaIntervalMs;
+    }
+
+    private void fullLoad() throws Exception {
+        long start = System.currentTimeMillis();
+        Map<String, String> index = new ConcurrentHashMap<>();
+        String snapshotCursor = null;
+        int page = 0;
+        CorpMappingClient.MappingPage mappingPage;
+        do {
+            mappingPage = corpMappingClient.fetchMappingPage(page++, pageSize);
+            if (snapshotCursor == null) {
+                // Changes made while paging are replayed from the first page's cursor
+                snapshotCursor = mappingPage.getCursor();
+            }
+            for (CorpMappingClient.MappingEntry entry : mappingPage.getEntries()) {
+                if (entry.getCorpId() != null) {
+                    index.put(entry.getOrganizationId(), entry.getCorpId());
+                }
+            }
+        } while (mappingPage.hasMore() && !mappingPage.getEntries().isEmpty());
+
+        corpIdsByOrganization = index;
+        cursor = corpMappingClient.supportsMappingChanges() ? snapshotCursor : null;
+        lastFullLoadMillis = start;
+        logger.info("Loaded corp mapping snapshot: {} organizations in {} pages ({} ms){}",
+            index.size(), page, System.currentTimeMillis() - start,
+            cursor == null ? "; no change feed, next full reload in " + fullReloadIntervalMs + " ms" : "");
+    }
+
+    private void applyDeltas() throws Exception {
+        Map<String, String> index = corpIdsByOrganization;
+        int applied = 0;
+        CorpMappingClient.MappingPage changes;
+        do {
+            changes = corpMappingClient.fetchMappingChanges(cursor);
+            for (CorpMappingClient.MappingEntry entry : changes.getEntries()) {
+                if (entry.getCorpId() == null) {
+                    index.remove(entry.getOrganizationId());
+                } else {
+                    index.put(entry.getOrganizationId(), entry.getCorpId());
+                }
+                applied++;
+            }
+            if (changes.getCursor() != null) {
+                cursor = changes.getCursor();
+            }
+        } while (changes.hasMore() && !changes.getEntries().isEmpty());
+
+        if (applied > 0) {
+            logger.info("Applied {} corp mapping changes ({} organizations)", applied, index.size());
+        }
+    }
+}
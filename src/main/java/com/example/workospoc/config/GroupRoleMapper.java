@@ -0,0 +1,159 @@
+package com.example.workospoc.config;
+
+import com.workos.sso.models.Profile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Derives system roles from IdP group claims (e.g. Azure Entra ID group GUIDs)
+ *
+ * Rules are configured per connection as
+ * workos.group-role-mapping.&lt;connectionId&gt;.&lt;groupId&gt;: &lt;role&gt; and
+ * compiled once into a hash map of group ID -> role rank, where rank follows
+ * workos.role-resolution.group-role-priority (highest privilege first). A profile's
+ * groups are evaluated in a single pass that keeps the best rank seen and
+ * stops early once the highest-privilege role is found, so profiles with
+ * hundreds of groups cost one hash lookup per group.
+ */
+@Component
+public class GroupRoleMapper {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupRoleMapper.class);
+
+    private static final String MAPPING_PREFIX = "workos.group-role-mapping.";
+
+    @Value("${workos.role-resolution.group-attribute:groups}")
+    private String groupAttribute;
+
+    @Value("${workos.role-resolution.group-role-priority:org_super,org_managerplus,org_manager,org_support,org_user}")
+    private String rolePrioritySpec;
+
+    private final WorkOSConfig workOSConfig;
+
+    private Map<String, Rules> rulesByConnection = Collections.emptyMap();
+
+    public GroupRoleMapper(WorkOSConfig workOSConfig) {
+        this.workOSConfig = workOSConfig;
+    }
+
+    @PostConstruct
+    public void init() {
+        List<String> rolePriority = new ArrayList<>();
+        for (String role : rolePrioritySpec.split(",")) {
+            if (!role.trim().isEmpty()) {
+                rolePriority.add(role.trim());
+            }
+        }
+
+        // connectionId.groupId -> role, grouped by connection
+        Map<String, Map<String, String>> groupsByConnection = new HashMap<>();
+        workOSConfig.collectPrefixedProperties(MAPPING_PREFIX).get(MAPPING_PREFIX).forEach((key, role) -> {
+            int dot = key.indexOf('.');
+            if (dot <= 0 || dot == key.length() - 1) {
+                logger.warn("Ignoring group role mapping '{}{}', expected <connectionId>.<groupId>", MAPPING_PREFIX, key);
+                return;
+            }
+            groupsByConnection.computeIfAbsent(key.substring(0, dot), c -> new HashMap<>())
+                .put(key.substring(dot + 1), role.trim());
+        });
+
+        Map<String, Rules> compiled = new HashMap<>();
+        groupsByConnection.forEach((connectionId, groupToRole) ->
+            compiled.put(connectionId, Rules.compile(groupToRole, rolePriority)));
+        rulesByConnection = compiled;
+
+        if (!compiled.isEmpty()) {
+            compiled.forEach((connectionId, rules) ->
+                logger.info("Compiled {} group role rules for connection {}", rules.size(), connectionId));
+        }
+    }
+
+    /**
+     * @return the highest-privilege role mapped from the profile's groups, or
+     *         null if the connection has no rules or no group matches
+     */
+    public String resolve(Profile profile) {
+        if (profile.connectionId == null || profile.rawAttributes == null) {
+            return null;
+        }
+        Rules rules = rulesByConnection.get(profile.connectionId);
+        return rules != null ? rules.resolve(profile.rawAttributes.get(groupAttribute)) : null;
+    }
+
+    /**
+     * Compiled group -> role rules for one connection
+     */
+    public static final class Rules {
+        private final Map<String, Integer> rankByGroup;
+        private final String[] rolesByRank;
+
+        private Rules(Map<String, Integer> rankByGroup, String[] rolesByRank) {
+            this.rankByGroup = rankByGroup;
+            this.rolesByRank = rolesByRank;
+        }
+
+        /**
+         * @param groupToRole  group ID -> role
+         * @param rolePriority roles, highest privilege first; mappings to other roles are rejected
+         */
+        public static Rules compile(Map<String, String> groupToRole, List<String> rolePriority) {
+            Map<String, Integer> rankByGroup = new HashMap<>(groupToRole.size() * 2);
+            groupToRole.forEach((group, role) -> {
+                int rank = rolePriority.indexOf(role);
+                if (rank < 0) {
+                    throw new IllegalArgumentException("Group " + group + " maps to unknown role '" + role + "'");
+                }
+                rankByGroup.put(group.intern(), rank);
+            });
+            return new Rules(rankByGroup, rolePriority.toArray(new String[0]));
+        }
+
+        public int size() {
+            return rankByGroup.size();
+        }
+
+        /**
+         * Evaluate a group claim (a collection, an array or a comma-separated string)
+         */
+        public String resolve(Object groups) {
+            int best = Integer.MAX_VALUE;
+            if (groups instanceof Iterable) {
+                for (Object group : (Iterable<?>) groups) {
+                    best = Math.min(best, rank(group));
+                    if (best == 0) {
+                        break;
+                    }
+                }
+            } else if (groups instanceof Object[]) {
+                for (Object group : (Object[]) groups) {
+                    best = Math.min(best, rank(group));
+                    if (best == 0) {
+                        break;
+                    }
+                }
+            } else if (groups instanceof String) {
+                for (String group : ((String) groups).split(",")) {
+                    best = Math.min(best, rank(group.trim()));
+                    if (best == 0) {
+                        break;
+                    }
+                }
+            }
+            return best == Integer.MAX_VALUE ? null : rolesByRank[best];
+        }
+
+        private int rank(Object group) {
+            Integer rank = group != null ? rankByGroup.get(group.toString()) : null;
+            return rank != null ? rank : Integer.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.workospoc.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Minimal HS256 compact-JWS signer for token minting
+ *
+ * Produces the same tokens jjwt would ({"alg":"HS256"} header, claims as
+ * JSON) with less work per token: the base64url header is precomputed,
+ * claims that are static per connection (source, connectionId,
+ * connectionType, organizationId, organizationName, corpId) are serialized
+ * once per distinct combination and cached, and each caller reuses a Mac
+ * and output buffers from a ScratchPool (per platform thread, or pooled for
+ * virtual threads). New Macs are cloned from an initialized prototype.
+ * Tokens verify with the regular jjwt parser.
+ */
+public final class HmacSha256Signer {
+
+    private static final byte[] BASE64_URL =
+        "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] HEADER = base64Url("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8));
+
+    private static final Set<String> STATIC_CLAIMS = new HashSet<>(Arrays.asList(
+        "source", "connectionId", "connectionType", "organizationId", "organizationName", "corpId"));
+
+    private static final int MAX_CACHED_FRAGMENTS = 1024;
+
+    private static final int SIGNATURE_LENGTH = 32;
+
+    private final ObjectMapper objectMapper;
+    private final ScratchPool<Buffers> buffers;
+
+    /**
+     * Static claim values (joined) -> JSON members without braces, e.g. "corpId":"corp1","source":"workos"
+     */
+    private final Map<String, String> fragments = new ConcurrentHashMap<>();
+
+    public HmacSha256Signer(SecretKey key, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        // Fail at startup rather than on the first login
+        Mac prototype = newMac(key);
+        this.buffers = new ScratchPool<>(() -> new Buffers(copyMac(prototype, key)));
+    }
+
+    static Mac newMac(SecretKey key) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    /**
+     * Clone an initialized (never updated) Mac, which skips the provider
+     * lookup and key setup; falls back to a new instance
+     */
+    static Mac copyMac(Mac prototype, SecretKey key) {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            return newMac(key);
+        }
+    }
+
+    /**
+     * Sign the claims (values must be JSON-serializable; dates as epoch seconds)
+     */
+    public String sign(Map<String, Object> claims) {
+        Buffers buf = buffers.acquire();
+        try {
+            return sign(claims, buf);
+        } finally {
+            buffers.release(buf);
+        }
+    }
+
+    private String sign(Map<String, Object> claims, Buffers buf) {
+        ReusableByteArrayOutputStream json = buf.json;
+        json.reset();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(json)) {
+            String fragment = fragment(claims);
+            generator.writeStartObject();
+            boolean needsComma = false;
+            if (!fragment.isEmpty()) {
+                generator.writeRaw(fragment);
+                needsComma = true;
+            }
+            for (Map.Entry<String, Object> claim : claims.entrySet()) {
+                if (claim.getValue() == null || STATIC_CLAIMS.contains(claim.getKey())) {
+                    continue;
+                }
+                if (needsComma) {
+                    // The generator does not know about the raw fragment
+                    generator.writeRaw(',');
+                    needsComma = false;
+                }
+                generator.writeFieldName(claim.getKey());
+                generator.writeObject(claim.getValue());
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        int payloadLength = json.size();
+        int signingInputLength = HEADER.length + 1 + base64UrlLength(payloadLength);
+        byte[] out = buf.output(signingInputLength + 1 + base64UrlLength(SIGNATURE_LENGTH));
+        System.arraycopy(HEADER, 0, out, 0, HEADER.length);
+        out[HEADER.length] = '.';
+        encodeBase64Url(json.buffer(), payloadLength, out, HEADER.length + 1);
+
+        Mac mac = buf.mac;
+        mac.update(out, 0, signingInputLength);
+        try {
+            mac.doFinal(buf.signature, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC failed", e);
+        }
+        out[signingInputLength] = '.';
+        int end = encodeBase64Url(buf.signature, SIGNATURE_LENGTH, out, signingInputLength + 1);
+        return new String(out, 0, end, StandardCharsets.US_ASCII);
+    }
+
+    private String fragment(Map<String, Object> claims) throws IOException {
+        StringBuilder key = new StringBuilder(128);
+        for (String name : STATIC_CLAIMS) {
+            Object value = claims.get(name);
+            key.append(value instanceof String ? (String) value : value != null ? "\u0001" + value : "\u0002").append('\u0000');
+        }
+        String cacheKey = key.toString();
+        String fragment = fragments.get(cacheKey);
+        if (fragment != null) {
+            return fragment;
+        }
+
+        StringBuilder members = new StringBuilder();
+        for (String name : STATIC_CLAIMS) {
+            Object value = claims.get(name);
+            if (value != null) {
+                if (members.length() > 0) {
+                    members.append(',');
+                }
+                members.append(objectMapper.writeValueAsString(name)).append(':').append(objectMapper.writeValueAsString(value));
+            }
+        }
+        fragment = members.toString();
+        if (fragments.size() < MAX_CACHED_FRAGMENTS) {
+            fragments.put(cacheKey, fragment);
+        }
+        return fragment;
+    }
+
+    public int cachedFragments() {
+        return fragments.size();
+    }
+
+    private static int base64UrlLength(int length) {
+        return (length / 3) * 4 + (length % 3 == 0 ? 0 : length % 3 + 1);
+    }
+
+    /**
+     * Unpadded base64url encode src[0, length) into dst at offset
+     *
+     * @return the offset after the last byte written
+     */
+    private static int encodeBase64Url(byte[] src, int length, byte[] dst, int offset) {
+        int i = 0;
+        int d = offset;
+        for (int end = length - length % 3; i < end; i += 3) {
+            int bits = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8 | (src[i + 2] & 0xff);
+            dst[d++] = BASE64_URL[bits >>> 18];
+            dst[d++] = BASE64_URL[(bits >>> 12) & 0x3f];
+            dst[d++] = BASE64_URL[(bits >>> 6) & 0x3f];
+            dst[d++] = BASE64_URL[bits & 0x3f];
+        }
+        int remaining = length - i;
+        if (remaining == 1) {
+            int bits = (src[i] & 0xff) << 16;
+            dst[d++] = BASE64_URL[bits >>> 18];
+            dst[d++] = BASE64_URL[(bits >>> 12) & 0x3f];
+        } else if (remaining == 2) {
+            int bits = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8;
+            dst[d++] = BASE64_URL[bits >>> 18];
+            dst[d++] = BASE64_URL[(bits >>> 12) & 0x3f];
+            dst[d++] = BASE64_URL[(bits >>> 6) & 0x3f];
+        }
+        return d;
+    }
+
+    private static byte[] base64Url(byte[] src) {
+        byte[] dst = new byte[base64UrlLength(src.length)];
+        encodeBase64Url(src, src.length, dst, 0);
+        return dst;
+    }
+
+    /**
+     * Scratch space for one caller at a time, grown as needed and reused across tokens
+     */
+    private static final class Buffers {
+        private final Mac mac;
+        private final ReusableByteArrayOutputStream json = new ReusableByteArrayOutputStream(1024);
+        private final byte[] signature = new byte[SIGNATURE_LENGTH];
+        private byte[] output = new byte[2048];
+
+        private Buffers(Mac mac) {
+            this.mac = mac;
+        }
+
+        private byte[] output(int length) {
+            if (output.length < length) {
+                output = new byte[Math.max(length, output.length * 2)];
+            }
+            return output;
+        }
+    }
+
+    private static final class ReusableByteArrayOutputStream extends ByteArrayOutputStream {
+        private ReusableByteArrayOutputStream(int size) {
+            super(size);
+        }
+
+        private byte[] buffer() {
+            return buf;
+        }
+    }
+}
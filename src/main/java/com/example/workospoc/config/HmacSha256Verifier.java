@@ -0,0 +1,143 @@
+package com.example.workospoc.config;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * Verifies HS256 tokens over their raw bytes and returns a LazyClaims view
+ *
+ * Only tokens with the exact {"alg":"HS256"} header that JwtUtil mints are
+ * handled; anything else returns null so the caller can fall back to the
+ * full jjwt parser. Expects input that already passed JwtUtil's structural
+ * pre-check (three non-empty base64url segments). The Mac and buffers come
+ * from a ScratchPool, as in HmacSha256Signer.
+ */
+public final class HmacSha256Verifier {
+
+    static final String HEADER = "eyJhbGciOiJIUzI1NiJ9";
+
+    private static final int SIGNATURE_LENGTH = 32;
+
+    private static final int[] BASE64_URL_VALUES = new int[128];
+
+    static {
+        Arrays.fill(BASE64_URL_VALUES, -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64_URL_VALUES[alphabet.charAt(i)] = i;
+        }
+    }
+
+    private final ScratchPool<Buffers> buffers;
+
+    public HmacSha256Verifier(SecretKey key) {
+        Mac prototype = HmacSha256Signer.newMac(key);
+        this.buffers = new ScratchPool<>(() -> new Buffers(HmacSha256Signer.copyMac(prototype, key)));
+    }
+
+    /**
+     * @return the validation result, or null if the token is not one this
+     *         verifier handles (other header, or an nbf claim)
+     */
+    public JwtValidationResult verify(String token) {
+        if (!token.startsWith(HEADER) || token.length() <= HEADER.length() || token.charAt(HEADER.length()) != '.') {
+            return null;
+        }
+        int payloadStart = HEADER.length() + 1;
+        int signatureStart = token.indexOf('.', payloadStart) + 1;
+        // 43 characters carry 258 bits; the 2 bits past the 32-byte MAC must be
+        // zero, so each MAC has exactly one accepted encoding
+        if (token.length() - signatureStart != 43 || (BASE64_URL_VALUES[token.charAt(token.length() - 1)] & 3) != 0) {
+            return JwtValidationResult.failure(JwtValidationResult.Reason.BAD_SIGNATURE);
+        }
+
+        int signingInputLength = signatureStart - 1;
+        Buffers buf = buffers.acquire();
+        try {
+            byte[] signingInput = buf.signingInput(signingInputLength);
+            for (int i = 0; i < signingInputLength; i++) {
+                signingInput[i] = (byte) token.charAt(i);
+            }
+            Mac mac = buf.mac;
+            mac.update(signingInput, 0, signingInputLength);
+            try {
+                mac.doFinal(buf.expected, 0);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC failed", e);
+            }
+            if (decodeBase64Url(token, signatureStart, token.length(), buf.presented) != SIGNATURE_LENGTH
+                    || !MessageDigest.isEqual(buf.expected, buf.presented)) {
+                return JwtValidationResult.failure(JwtValidationResult.Reason.BAD_SIGNATURE);
+            }
+        } finally {
+            buffers.release(buf);
+        }
+
+        int payloadChars = signingInputLength - payloadStart;
+        if (payloadChars % 4 == 1) {
+            return JwtValidationResult.failure(JwtValidationResult.Reason.MALFORMED);
+        }
+        byte[] payload = new byte[payloadChars / 4 * 3 + Math.max(0, payloadChars % 4 - 1)];
+        decodeBase64Url(token, payloadStart, signingInputLength, payload);
+        LazyClaims claims = LazyClaims.parse(payload);
+        if (claims == null) {
+            return JwtValidationResult.failure(JwtValidationResult.Reason.MALFORMED);
+        }
+        if (claims.containsKey(io.jsonwebtoken.Claims.NOT_BEFORE)) {
+            return null;
+        }
+
+        Object exp = claims.get(io.jsonwebtoken.Claims.EXPIRATION);
+        if (exp != null && !(exp instanceof Number)) {
+            return JwtValidationResult.failure(JwtValidationResult.Reason.MALFORMED);
+        }
+        if (exp != null && System.currentTimeMillis() > ((Number) exp).longValue() * 1000) {
+            return JwtValidationResult.failure(JwtValidationResult.Reason.EXPIRED);
+        }
+        return JwtValidationResult.valid(claims);
+    }
+
+    /**
+     * Decode base64url characters token[from, to) into dst
+     *
+     * @return the number of bytes written, or -1 if dst is too small
+     */
+    private static int decodeBase64Url(String token, int from, int to, byte[] dst) {
+        int bits = 0;
+        int bitCount = 0;
+        int d = 0;
+        for (int i = from; i < to; i++) {
+            bits = bits << 6 | BASE64_URL_VALUES[token.charAt(i)];
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                if (d == dst.length) {
+                    return -1;
+                }
+                dst[d++] = (byte) (bits >> bitCount);
+            }
+        }
+        return d;
+    }
+
+    private static final class Buffers {
+        private final Mac mac;
+        private final byte[] expected = new byte[SIGNATURE_LENGTH];
+        private final byte[] presented = new byte[SIGNATURE_LENGTH];
+        private byte[] signingInput = new byte[2048];
+
+        private Buffers(Mac mac) {
+            this.mac = mac;
+        }
+
+        private byte[] signingInput(int length) {
+            if (signingInput.length < length) {
+                signingInput = new byte[Math.max(length, signingInput.length * 2)];
+            }
+            return signingInput;
+        }
+    }
+}
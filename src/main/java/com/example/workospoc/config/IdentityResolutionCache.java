@@ -0,0 +1,252 @@
+package com.example.workospoc.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+/**
+ * Restart-surviving cache of (organizationId, email) -> corpId / role results
+ * from the corp-mapping service
+ *
+ * Every resolution is appended to a local AppendOnlyLog and reloaded at startup, so a
+ * freshly deployed node does not send a burst of lookups to the corp-mapping
+ * service. The file starts with a format header and every line carries a
+ * CRC32; files with an unknown header and lines that are torn, corrupt or
+ * expired are ignored. The file is compacted periodically.
+ */
+@Component
+public class IdentityResolutionCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdentityResolutionCache.class);
+
+    static final String FORMAT_HEADER = "# identity-resolution-cache v1";
+
+    private static final String KIND_CORP_ID = "corpId";
+    private static final String KIND_ROLE = "role";
+
+    @Value("${identity.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${identity.cache.file:./data/identity-cache.log}")
+    private String cacheFile;
+
+    @Value("${identity.cache.ttl-seconds:3600}")
+    private long ttlSeconds;
+
+    @Value("${identity.cache.max-entries:100000}")
+    private int maxEntries;
+
+    /**
+     * kind \n organizationId \n email -> value and expiry
+     */
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Guards the max-entries bound and purging; a lock rather than a monitor
+    // so callback threads writing the file do not pin a virtual thread's carrier
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private AppendOnlyLog log;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        log = new AppendOnlyLog(cacheFile, FORMAT_HEADER);
+        long now = System.currentTimeMillis();
+
+        int skipped = log.load(line -> load(line, now));
+
+        try {
+            compact();
+        } catch (IOException e) {
+            logger.warn("Could not open identity cache file {}: {}", log.getPath(), e.getMessage());
+        }
+        logger.info("Identity cache loaded {} live entries from {} ({} expired or corrupt lines skipped)",
+                entries.size(), log.getPath(), skipped);
+    }
+
+    /**
+     * Parse one "crc \t kind \t organizationId \t email \t value \t expiresAt" line
+     */
+    private boolean load(String line, long now) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 6) {
+            return false;
+        }
+        String payload = line.substring(fields[0].length() + 1);
+        if (!fields[0].equals(crc(payload))) {
+            return false;
+        }
+        try {
+            long expiresAt = Long.parseLong(fields[5]);
+            if (expiresAt <= now || entries.size() >= maxEntries) {
+                return false;
+            }
+            entries.put(key(fields[1], fields[2], fields[3]), new Entry(fields[4], expiresAt));
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    public String getCorpId(String organizationId, String email) {
+        return get(KIND_CORP_ID, organizationId, email);
+    }
+
+    public String getRole(String organizationId, String email) {
+        return get(KIND_ROLE, organizationId, email);
+    }
+
+    public void putCorpId(String organizationId, String email, String corpId) {
+        put(KIND_CORP_ID, organizationId, email, corpId);
+    }
+
+    public void putRole(String organizationId, String email, String role) {
+        put(KIND_ROLE, organizationId, email, role);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private String get(String kind, String organizationId, String email) {
+        if (!enabled || organizationId == null || email == null) {
+            return null;
+        }
+        Entry entry = entries.get(key(kind, organizationId, normalize(email)));
+        return entry != null && entry.expiresAt > System.currentTimeMillis() ? entry.value : null;
+    }
+
+    private void put(String kind, String organizationId, String email, String value) {
+        lock.lock();
+        try {
+            if (!enabled || organizationId == null || email == null || value == null || value.isEmpty()) {
+                return;
+            }
+            email = normalize(email);
+            if (!persistable(organizationId) || !persistable(email) || !persistable(value)) {
+                logger.debug("Not caching identity resolution with control characters for {}", email);
+                return;
+            }
+            if (entries.size() >= maxEntries) {
+                long now = System.currentTimeMillis();
+                entries.values().removeIf(e -> e.expiresAt <= now);
+                if (entries.size() >= maxEntries) {
+                    return;
+                }
+            }
+
+            long expiresAt = System.currentTimeMillis() + ttlSeconds * 1000;
+            entries.put(key(kind, organizationId, email), new Entry(value, expiresAt));
+
+            try {
+                log.append(line(kind, organizationId, email, value, expiresAt));
+            } catch (IOException e) {
+                logger.warn("Could not persist identity resolution for {}: {}", email, e.getMessage());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drop expired entries and compact the file once it holds more stale
+     * lines than live ones
+     */
+    @Scheduled(fixedDelayString = "${identity.cache.compact-interval-ms:600000}")
+    public void purgeExpired() {
+        lock.lock();
+        try {
+            if (!enabled) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            int removed = 0;
+            for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+                if (it.next().expiresAt <= now) {
+                    it.remove();
+                    removed++;
+                }
+            }
+            if (removed == 0 && log.appendedSinceCompaction() <= entries.size()) {
+                return;
+            }
+
+            try {
+                compact();
+            } catch (IOException e) {
+                logger.warn("Could not compact identity cache file {}: {}", cacheFile, e.getMessage());
+            }
+            logger.debug("Purged {} expired identity resolutions, {} remaining", removed, entries.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rewrite the file with only live entries and reopen it for appending
+     */
+    private void compact() throws IOException {
+        log.compact(entries.entrySet().stream()
+                .map(entry -> {
+                    String[] parts = entry.getKey().split("\n", -1);
+                    return line(parts[0], parts[1], parts[2], entry.getValue().value, entry.getValue().expiresAt);
+                })
+                .collect(Collectors.toList()));
+    }
+
+    @PreDestroy
+    public void closeAppender() {
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    private static String line(String kind, String organizationId, String email, String value, long expiresAt) {
+        String payload = kind + "\t" + organizationId + "\t" + email + "\t" + value + "\t" + expiresAt;
+        return crc(payload) + "\t" + payload;
+    }
+
+    private static String crc(String payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+
+    private static String key(String kind, String organizationId, String email) {
+        return kind + "\n" + organizationId + "\n" + email;
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean persistable(String value) {
+        return value.indexOf('\t') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0;
+    }
+
+    private static final class Entry {
+        private final String value;
+        private final long expiresAt;
+
+        private Entry(String value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
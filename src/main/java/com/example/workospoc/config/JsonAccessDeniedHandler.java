@@ -0,0 +1,26 @@
+package com.example.workospoc.config;
+
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.web.access.AccessDeniedHandler;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Writes a prebuilt JSON 403 body directly to the response, without the
+ * error dispatch that the default handler's sendError() would cause
+ */
+@Component
+public class JsonAccessDeniedHandler implements AccessDeniedHandler {
+
+    private static final byte[] BODY = JwtAuthenticationEntryPoint.JsonErrorResponses.body(
+        HttpServletResponse.SC_FORBIDDEN, "Forbidden", "insufficient_role");
+
+    @Override
+    public void handle(HttpServletRequest request, HttpServletResponse response,
+                       AccessDeniedException accessDeniedException) throws IOException {
+        JwtAuthenticationEntryPoint.JsonErrorResponses.write(response, HttpServletResponse.SC_FORBIDDEN, BODY);
+    }
+}
@@ -1,20 +1,90 @@
 package com.example.workospoc.config;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
 
+/**
+ * Writes a prebuilt JSON 401 body directly to the response
+ *
+ * Unlike sendError(), this does not trigger an error dispatch to /error, so
+ * an unauthenticated request costs a single pass through the filter chain.
+ * The reason code comes from the JwtValidationResult left by JwtRequestFilter.
+ */
 @Component
 public class JwtAuthenticationEntryPoint implements AuthenticationEntryPoint {
 
+    private static final Map<JwtValidationResult.Reason, byte[]> BODIES = new EnumMap<>(JwtValidationResult.Reason.class);
+
+    static {
+        for (JwtValidationResult.Reason reason : JwtValidationResult.Reason.values()) {
+            BODIES.put(reason, JsonErrorResponses.body(HttpServletResponse.SC_UNAUTHORIZED, "Unauthorized",
+                reason == JwtValidationResult.Reason.VALID ? "unauthorized" : reason.getCode()));
+        }
+    }
+
     @Override
     public void commence(HttpServletRequest request, HttpServletResponse response,
                          AuthenticationException authException) throws IOException, ServletException {
-        response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Unauthorized");
+        Object result = request.getAttribute(JwtValidationResult.REQUEST_ATTRIBUTE);
+        JwtValidationResult.Reason reason = result instanceof JwtValidationResult
+            ? ((JwtValidationResult) result).getReason()
+            : JwtValidationResult.Reason.MISSING;
+        response.setHeader("WWW-Authenticate", "Bearer");
+        JsonErrorResponses.write(response, HttpServletResponse.SC_UNAUTHORIZED, BODIES.get(reason));
+    }
+
+    /**
+     * Pre-encoded JSON error bodies shared with JsonAccessDeniedHandler
+     */
+    static final class JsonErrorResponses {
+
+        private JsonErrorResponses() {
+        }
+
+        static byte[] body(int status, String error, String reason) {
+            return ("{\"status\":" + status + ",\"error\":\"" + error + "\",\"reason\":\"" + reason + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        }
+
+        static void write(HttpServletResponse response, int status, byte[] body) throws IOException {
+            if (response.isCommitted()) {
+                return;
+            }
+            response.setStatus(status);
+            response.setContentType("application/json");
+            response.setCharacterEncoding("UTF-8");
+            response.setHeader("Cache-Control", "no-store");
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+            response.flushBuffer();
+        }
+
+        /**
+         * WebFlux counterpart of write(), used by ReactiveSecurityConfig
+         */
+        static Mono<Void> write(ServerHttpResponse response, int status, byte[] body) {
+            if (response.isCommitted()) {
+                return Mono.empty();
+            }
+            response.setRawStatusCode(status);
+            HttpHeaders headers = response.getHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.setCacheControl("no-store");
+            headers.setContentLength(body.length);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        }
     }
 }
@@ -24,57 +24,55 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private TokenRevocationRegistry revocationRegistry;
+
+    @Autowired
+    private TenantStatistics tenantStatistics;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                     FilterChain chain) throws ServletException, IOException {
 
+        long startNanos = System.nanoTime();
+        JwtValidationResult tenantToken = null;
         final String requestTokenHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwtToken = null;
-
-        if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
-            jwtToken = requestTokenHeader.substring(7);
-            try {
-                username = jwtUtil.getUserNameFromJwtToken(jwtToken);
-            } catch (Exception e) {
-                logger.error("Unable to get JWT Token or JWT Token has expired");
+        if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Parse and verify once; later stages read the claims from the request attribute
+            JwtValidationResult result = jwtUtil.validate(requestTokenHeader.substring(7));
+            if (result.isValid() && revocationRegistry.isRevoked(result.getString("jti"))) {
+                result = jwtUtil.fail(JwtValidationResult.Reason.REVOKED);
             }
-        }
+            request.setAttribute(JwtValidationResult.REQUEST_ATTRIBUTE, result);
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            
-            if (jwtUtil.validateJwtToken(jwtToken)) {
+            String username = result.isValid() ? result.getClaims().getSubject() : null;
+            if (username == null) {
+                logger.debug("Rejected bearer token: " + result.getReason().getCode());
+            } else {
                 UserDetails userDetails;
                 
                 // Check if this is a WorkOS token (has 'source' claim)
-                String source = jwtUtil.getClaimFromToken(jwtToken, "source");
+                String source = result.getString("source");
                 if ("workos".equals(source)) {
                     // For WorkOS users, create anonymous UserDetails from JWT claims
-                    String role = jwtUtil.getClaimFromToken(jwtToken, "role");
-                    String firstName = jwtUtil.getClaimFromToken(jwtToken, "firstName");
-                    String lastName = jwtUtil.getClaimFromToken(jwtToken, "lastName");
-                    String organizationId = jwtUtil.getClaimFromToken(jwtToken, "organizationId");
-                    String connectionId = jwtUtil.getClaimFromToken(jwtToken, "connectionId");
-                    String corpId = jwtUtil.getClaimFromToken(jwtToken, "corpId");  // Read corpId from JWT
-                    
-                    // Create display name from available attributes
-                    String displayName = username; // fallback to email
-                    if (firstName != null && lastName != null) {
-                        displayName = firstName + " " + lastName;
-                    } else if (firstName != null) {
-                        displayName = firstName;
-                    }
-                    
-                    // Use corpId from JWT, fallback to organizationId if not present
-                    if (corpId == null || corpId.isEmpty()) {
-                        corpId = organizationId != null ? organizationId : "workos-external";
+                    userDetails = workOSPrincipal(username, result);
+                    if (logger.isDebugEnabled()) {
+                        String firstName = result.getString("firstName");
+                        String lastName = result.getString("lastName");
+
+                        // Create display name from available attributes
+                        String displayName = username; // fallback to email
+                        if (firstName != null && lastName != null) {
+                            displayName = firstName + " " + lastName;
+                        } else if (firstName != null) {
+                            displayName = firstName;
+                        }
+                        logger.debug("Creating WorkOS user session for: " + displayName + " (" + username +
+                            "), Organization: " + ((UserPrincipal) userDetails).getCorpId() +
+                            ", Connection: " + result.getString("connectionId"));
                     }
-                    
-                    logger.info("Creating WorkOS user session for: " + displayName + " (" + username + 
-                        "), Organization: " + corpId + ", Connection: " + connectionId);
-                    
-                    userDetails = new UserPrincipal(username, "", corpId, role != null ? role : "org_user");
                 } else {
                     // For regular users, load from user store
                     userDetails = this.userDetailsService.loadUserByUsername(username);
@@ -86,8 +84,54 @@ public class JwtRequestFilter extends OncePerRequestFilter {
                 usernamePasswordAuthenticationToken
                     .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
+                tenantToken = result;
             }
         }
-        chain.doFilter(request, response);
+        // WarmupRunner's own requests are not tenant traffic
+        if (tenantToken == null || WarmupRunner.isWarmupRequest(request.getHeader(WarmupRunner.WARMUP_HEADER))) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        // Per-tenant API statistics; a 5xx or an exception counts as an error
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            tenantStatistics.recordApi(tenantToken.getString("connectionId"), tenantCorpId(tenantToken),
+                System.nanoTime() - startNanos, failed);
+        }
+    }
+
+    /**
+     * Principal for a WorkOS token, built from its verified claims
+     *
+     * Shared with ReactiveJwtAuthenticationManager.
+     */
+    static UserPrincipal workOSPrincipal(String username, JwtValidationResult result) {
+        String role = result.getString("role");
+        return new UserPrincipal(username, "", workOSCorpId(result), role != null ? role : "org_user");
+    }
+
+    private static String workOSCorpId(JwtValidationResult result) {
+        String organizationId = result.getString("organizationId");
+        String corpId = result.getString("corpId");  // Read corpId from JWT
+
+        // Use corpId from JWT, fallback to organizationId if not present
+        if (corpId == null || corpId.isEmpty()) {
+            corpId = organizationId != null ? organizationId : "workos-external";
+        }
+        return corpId;
+    }
+
+    /**
+     * corpId a verified token is attributed to in TenantStatistics, the same
+     * one its principal carries
+     *
+     * Shared with ReactiveJwtWebFilter.
+     */
+    static String tenantCorpId(JwtValidationResult result) {
+        return "workos".equals(result.getString("source")) ? workOSCorpId(result) : result.getString("corpId");
     }
 }
@@ -1,7 +1,11 @@
 package com.example.workospoc.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -10,8 +14,14 @@ import com.workos.sso.models.Profile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PostConstruct;
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 @Component
@@ -25,31 +35,200 @@ public class JwtUtil {
     @Value("${jwt.expiration:86400000}")
     private int jwtExpirationMs;
 
+    @Value("${jwt.max-token-length:8192}")
+    private int maxTokenLength;
+
+    // Up to this much is randomly taken off each token's lifetime so that
+    // logins clustered at the start of the day do not all expire together
+    @Value("${jwt.expiration-jitter-ms:0}")
+    private long expirationJitterMs;
+
+    // Renewal never extends a session beyond this long after the original login
+    @Value("${jwt.renewal.max-session-ms:604800000}")
+    private long maxSessionMs;
+
+    /**
+     * Original login time (epoch seconds), carried over by renewals
+     */
+    public static final String AUTH_TIME_CLAIM = "authTime";
+
+    public static final String ISSUED_LOGIN = "login";
+    public static final String ISSUED_SSO = "sso";
+    public static final String ISSUED_RENEWAL = "renewal";
+
+    // jwt: signed, self-contained JWTs; reference: opaque handles looked up in ReferenceTokenStore
+    @Value("${jwt.token-mode:jwt}")
+    private String tokenMode;
+
+    // Mint with HmacSha256Signer instead of the jjwt builder (same tokens, less work per login)
+    @Value("${jwt.fast-signer.enabled:true}")
+    private boolean fastSignerEnabled;
+
+    // Verify HS256 tokens over the raw bytes and decode claims lazily (LazyClaims)
+    @Value("${jwt.lazy-claims.enabled:true}")
+    private boolean lazyClaimsEnabled;
+
+    private final MeterRegistry meterRegistry;
+    private final ReferenceTokenStore referenceTokenStore;
+    private HmacSha256Signer fastSigner;
+    private HmacSha256Verifier lazyVerifier;
+    private boolean referenceMode;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private final Map<JwtValidationResult.Reason, Counter> failureCounters = new EnumMap<>(JwtValidationResult.Reason.class);
+    private final Map<String, Counter> issuedCounters = new HashMap<>();
+
+    public JwtUtil(MeterRegistry meterRegistry, ReferenceTokenStore referenceTokenStore) {
+        this.meterRegistry = meterRegistry;
+        this.referenceTokenStore = referenceTokenStore;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!"jwt".equals(tokenMode) && !"reference".equals(tokenMode)) {
+            throw new IllegalStateException("jwt.token-mode must be 'jwt' or 'reference', was '" + tokenMode + "'");
+        }
+        referenceMode = "reference".equals(tokenMode);
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        if (fastSignerEnabled) {
+            fastSigner = new HmacSha256Signer(signingKey, new ObjectMapper());
+        }
+        if (lazyClaimsEnabled) {
+            lazyVerifier = new HmacSha256Verifier(signingKey);
+        }
+        for (JwtValidationResult.Reason reason : JwtValidationResult.Reason.values()) {
+            if (reason != JwtValidationResult.Reason.VALID) {
+                failureCounters.put(reason, Counter.builder("auth.jwt.validation.failed")
+                    .description("Bearer tokens rejected, by reason")
+                    .tag("reason", reason.getCode())
+                    .register(meterRegistry));
+            }
+        }
+        for (String kind : new String[] {ISSUED_LOGIN, ISSUED_SSO, ISSUED_RENEWAL}) {
+            issuedCounters.put(kind, Counter.builder("auth.token.issued")
+                .description("Tokens issued, by full login (login, sso) or renewal")
+                .tag("kind", kind)
+                .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Count a token handed to a client after a full login
+     */
+    public void recordIssued(String kind) {
+        issuedCounters.get(kind).increment();
+    }
+
+    /**
+     * Sign the claims as a JWT, or in reference mode store them and return an opaque handle
+     */
+    private String issue(Claims claims) {
+        if (referenceMode) {
+            String handle = referenceTokenStore.issue(claims);
+            if (handle != null) {
+                return handle;
+            }
+            // Table full: fall back to a self-contained token
+        }
+        String token = fastSigner != null
+                ? fastSigner.sign(claims)
+                : Jwts.builder()
+                        .setClaims(claims)
+                        .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                        .compact();
+        // validate() rejects anything longer, so never hand such a token out
+        if (token.length() > maxTokenLength) {
+            throw new IllegalStateException("Token of " + token.length()
+                    + " characters exceeds jwt.max-token-length " + maxTokenLength);
+        }
+        return token;
+    }
+
+    /**
+     * Forget a token that is no longer needed (reference handles are
+     * removed; JWTs cannot be recalled and simply expire)
+     */
+    public void discard(String token) {
+        if (ReferenceTokenStore.isHandle(token)) {
+            referenceTokenStore.remove(token);
+        }
+    }
+
+    private Date expirationFromNow() {
+        return expirationFrom(System.currentTimeMillis());
+    }
+
+    private Date expirationFrom(long now) {
+        long jitter = expirationJitterMs > 0 ? ThreadLocalRandom.current().nextLong(expirationJitterMs + 1) : 0;
+        return new Date(now + jwtExpirationMs - jitter);
+    }
+
+    /**
+     * Reissue a still-valid token with a fresh jti, iat and (jittered) exp,
+     * keeping every other claim; no WorkOS or corp-mapping calls are made
+     *
+     * @param claims verified claims of the current token
+     * @return the new token, or null if the session has reached jwt.renewal.max-session-ms
+     */
+    public String renewToken(Claims claims) {
+        long now = System.currentTimeMillis();
+        long authTime = getAuthTime(claims);
+        long sessionEnd = authTime + maxSessionMs;
+        if (sessionEnd <= now) {
+            return null;
+        }
+
+        Claims renewed = Jwts.claims();
+        renewed.putAll(claims);
+        renewed.put(AUTH_TIME_CLAIM, authTime / 1000);
+        renewed.setId(UUID.randomUUID().toString())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(Math.min(expirationFrom(now).getTime(), sessionEnd)));
+
+        issuedCounters.get(ISSUED_RENEWAL).increment();
+        return issue(renewed);
+    }
+
+    /**
+     * @return the original login time in epoch millis (iat for tokens that were never renewed)
+     */
+    private static long getAuthTime(Claims claims) {
+        Object authTime = claims.get(AUTH_TIME_CLAIM);
+        if (authTime instanceof Number) {
+            return ((Number) authTime).longValue() * 1000;
+        }
+        return claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : System.currentTimeMillis();
+    }
+
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        return signingKey;
     }
 
     public String generateJwtToken(Authentication authentication, String corpId, String role) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
 
-        return Jwts.builder()
+        Claims claims = Jwts.claims()
+                .setId(UUID.randomUUID().toString())
                 .setSubject((userPrincipal.getUsername()))
-                .claim("corpId", corpId)
-                .claim("role", role)
-                .claim("authorities", authentication.getAuthorities().stream()
-                        .map(GrantedAuthority::getAuthority)
-                        .collect(Collectors.toList()))
                 .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
+                .setExpiration(expirationFromNow());
+        claims.put("corpId", corpId);
+        claims.put("role", role);
+        claims.put("authorities", authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList()));
+
+        return issue(claims);
     }
 
     public String generateTokenForWorkOSUser(String email, String role, String corpId, Profile profile) {
         Claims claims = Jwts.claims()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(email)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs));
+                .setExpiration(expirationFromNow());
         
         claims.put("role", role);
         claims.put("corpId", corpId);
@@ -68,14 +247,6 @@ public class JwtUtil {
                 claims.put("lastName", profile.lastName);
             }
             
-            // Add raw attributes if available - this contains SAML attributes
-            if (profile.rawAttributes != null && !profile.rawAttributes.isEmpty()) {
-                claims.put("rawAttributes", profile.rawAttributes);
-                
-                // Log the raw attributes for debugging
-                logger.info("WorkOS Profile raw attributes: {}", profile.rawAttributes);
-            }
-            
             // Add organization ID if available
             if (profile.organizationId != null && !profile.organizationId.trim().isEmpty()) {
                 claims.put("organizationId", profile.organizationId);
@@ -84,10 +255,7 @@ public class JwtUtil {
         
         logger.info("Generated JWT token for WorkOS user: {} with corpId: {} and role: {}", email, corpId, role);
         
-        return Jwts.builder()
-                .setClaims(claims)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
+        return issue(claims);
     }
 
     public String generateTokenForWorkOSUser(String email, String role) {
@@ -96,9 +264,10 @@ public class JwtUtil {
 
     public String generateTokenForWorkOSUser(String email, String role, Profile profile) {
         Claims claims = Jwts.claims()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(email)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs));
+                .setExpiration(expirationFromNow());
         
         claims.put("role", role);
         claims.put("source", "workos");
@@ -116,31 +285,21 @@ public class JwtUtil {
                 claims.put("lastName", profile.lastName);
             }
             
-            // Add raw attributes if available - this contains SAML attributes
-            if (profile.rawAttributes != null && !profile.rawAttributes.isEmpty()) {
-                claims.put("rawAttributes", profile.rawAttributes);
-                
-                // Log the raw attributes for debugging
-                logger.info("WorkOS Profile raw attributes: {}", profile.rawAttributes);
-            }
-            
             // Add organization ID if available
             if (profile.organizationId != null && !profile.organizationId.trim().isEmpty()) {
                 claims.put("organizationId", profile.organizationId);
             }
         }
         
-        return Jwts.builder()
-                .setClaims(claims)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
+        return issue(claims);
     }
     
     public String generateTokenForWorkOSUserStaging(String email, String role) {
         Claims claims = Jwts.claims()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(email)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs));
+                .setExpiration(expirationFromNow());
         
         claims.put("role", role);
         claims.put("source", "workos");
@@ -170,10 +329,7 @@ public class JwtUtil {
         
         logger.info("Generated staging JWT token for WorkOS user: {} with mock attributes", email);
         
-        return Jwts.builder()
-                .setClaims(claims)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
+        return issue(claims);
     }
     
     public String generateTokenForWorkOSUserStaging(String email, String role, String corpId,
@@ -181,9 +337,10 @@ public class JwtUtil {
                                                    String organizationName, String organizationId,
                                                    String connectionId) {
         Claims claims = Jwts.claims()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(email)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs));
+                .setExpiration(expirationFromNow());
         
         claims.put("role", role);
         claims.put("corpId", corpId);
@@ -203,10 +360,7 @@ public class JwtUtil {
         logger.info("Generated dynamic staging JWT token for WorkOS user: {} ({} {}) from org: {} with corpId: {}", 
                    email, firstName, lastName, organizationName, corpId);
         
-        return Jwts.builder()
-                .setClaims(claims)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
+        return issue(claims);
     }
     
     public String generateTokenForWorkOSUserStaging(String email, String role, 
@@ -225,43 +379,120 @@ public class JwtUtil {
     }
 
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        Claims claims = validate(token).getClaims();
+        return claims != null ? claims.getSubject() : null;
     }
 
-    public String getClaimFromToken(String token, String claimName) {
-        try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            return claims.get(claimName, String.class);
-        } catch (Exception e) {
-            return null;
+    /**
+     * Validate a bearer token without throwing
+     *
+     * Length and the three-segment base64url shape are checked before any
+     * parsing or signature verification, so garbage tokens are rejected
+     * without exceptions. Tokens with our own HS256 header are then verified
+     * over the raw bytes and their claims decoded lazily (LazyClaims); other
+     * tokens go through the jjwt parser. Failures are counted in
+     * auth.jwt.validation.failed.
+     */
+    public JwtValidationResult validate(String token) {
+        if (ReferenceTokenStore.isHandle(token)) {
+            return validateReference(token);
+        }
+        JwtValidationResult.Reason precheck = precheck(token);
+        if (precheck != null) {
+            return fail(precheck);
+        }
+        if (lazyVerifier != null) {
+            JwtValidationResult result = lazyVerifier.verify(token);
+            if (result != null) {
+                return result.isValid() ? result : fail(result.getReason());
+            }
         }
-    }
-
-    public boolean validateJwtToken(String authToken) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(authToken);
-            return true;
-        } catch (MalformedJwtException e) {
-            System.err.println("Invalid JWT token: " + e.getMessage());
+            return JwtValidationResult.valid(parser.parseClaimsJws(token).getBody());
         } catch (ExpiredJwtException e) {
-            System.err.println("JWT token is expired: " + e.getMessage());
+            return fail(JwtValidationResult.Reason.EXPIRED);
+        } catch (SignatureException e) {
+            return fail(JwtValidationResult.Reason.BAD_SIGNATURE);
         } catch (UnsupportedJwtException e) {
-            System.err.println("JWT token is unsupported: " + e.getMessage());
-        } catch (IllegalArgumentException e) {
-            System.err.println("JWT claims string is empty: " + e.getMessage());
+            return fail(JwtValidationResult.Reason.UNSUPPORTED);
+        } catch (JwtException | IllegalArgumentException e) {
+            return fail(JwtValidationResult.Reason.MALFORMED);
+        }
+    }
+
+    /**
+     * Reference tokens are accepted in either mode, so switching modes does
+     * not log out users holding the other kind
+     */
+    private JwtValidationResult validateReference(String handle) {
+        if (handle.length() != ReferenceTokenStore.HANDLE_LENGTH) {
+            return fail(JwtValidationResult.Reason.MALFORMED);
         }
-        return false;
+        Claims claims = referenceTokenStore.lookup(handle);
+        if (claims == null) {
+            return fail(JwtValidationResult.Reason.MALFORMED);
+        }
+        Date expiration = claims.getExpiration();
+        if (expiration == null || expiration.getTime() <= System.currentTimeMillis()) {
+            return fail(JwtValidationResult.Reason.EXPIRED);
+        }
+        return JwtValidationResult.valid(claims);
+    }
+
+    /**
+     * Count a failure (including ones detected by callers, e.g. revocation)
+     */
+    public JwtValidationResult fail(JwtValidationResult.Reason reason) {
+        failureCounters.get(reason).increment();
+        return JwtValidationResult.failure(reason);
+    }
+
+    /**
+     * @return the failure reason, or null if the token looks like a compact JWS
+     */
+    private JwtValidationResult.Reason precheck(String token) {
+        if (token == null || token.isEmpty()) {
+            return JwtValidationResult.Reason.MISSING;
+        }
+        int length = token.length();
+        if (length > maxTokenLength) {
+            return JwtValidationResult.Reason.TOO_LONG;
+        }
+        int dots = 0;
+        int segmentStart = 0;
+        for (int i = 0; i < length; i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                if (i == segmentStart || ++dots > 2) {
+                    return JwtValidationResult.Reason.MALFORMED;
+                }
+                segmentStart = i + 1;
+            } else if (!isBase64Url(c)) {
+                return JwtValidationResult.Reason.MALFORMED;
+            }
+        }
+        // header.payload.signature, all non-empty (unsigned tokens are not accepted)
+        return dots == 2 && segmentStart < length ? null : JwtValidationResult.Reason.MALFORMED;
+    }
+
+    private static boolean isBase64Url(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
+    }
+
+    /**
+     * Parse and verify a token, returning all of its claims
+     *
+     * @return the verified claims, or null if the token is invalid or expired
+     */
+    public Claims getClaimsFromToken(String token) {
+        return validate(token).getClaims();
+    }
+
+    public String getClaimFromToken(String token, String claimName) {
+        return validate(token).getString(claimName);
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return validate(authToken).isValid();
     }
 }
@@ -0,0 +1,95 @@
+package com.example.workospoc.config;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Outcome of validating a bearer token: the verified claims, or why the
+ * token was rejected
+ *
+ * Structural problems are detected by a cheap pre-check before any parsing
+ * or signature verification, so junk tokens cost no exceptions.
+ */
+public final class JwtValidationResult {
+
+    /**
+     * Request attribute under which JwtRequestFilter stores the result
+     */
+    public static final String REQUEST_ATTRIBUTE = JwtValidationResult.class.getName();
+
+    public enum Reason {
+        VALID("valid"),
+        MISSING("missing"),
+        TOO_LONG("too_long"),
+        MALFORMED("malformed"),
+        BAD_SIGNATURE("bad_signature"),
+        EXPIRED("expired"),
+        UNSUPPORTED("unsupported"),
+        REVOKED("revoked");
+
+        private final String code;
+
+        Reason(String code) {
+            this.code = code;
+        }
+
+        /**
+         * Stable lower-case code for metrics tags and error bodies
+         */
+        public String getCode() {
+            return code;
+        }
+    }
+
+    private static final JwtValidationResult[] FAILURES = new JwtValidationResult[Reason.values().length];
+
+    static {
+        for (Reason reason : Reason.values()) {
+            FAILURES[reason.ordinal()] = new JwtValidationResult(reason, null);
+        }
+    }
+
+    private final Reason reason;
+    private final Claims claims;
+
+    private JwtValidationResult(Reason reason, Claims claims) {
+        this.reason = reason;
+        this.claims = claims;
+    }
+
+    static JwtValidationResult valid(Claims claims) {
+        return new JwtValidationResult(Reason.VALID, claims);
+    }
+
+    /**
+     * Shared, allocation-free failure result
+     */
+    public static JwtValidationResult failure(Reason reason) {
+        return FAILURES[reason.ordinal()];
+    }
+
+    public boolean isValid() {
+        return reason == Reason.VALID;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * @return the verified claims, or null if the token is not valid
+     */
+    public Claims getClaims() {
+        return claims;
+    }
+
+    /**
+     * @return a String claim, or null if absent, not a String, or the token is not valid
+     */
+    public String getString(String name) {
+        if (claims == null) {
+            return null;
+        }
+        Object value = claims.get(name);
+        return value instanceof String ? (String) value : null;
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.workospoc.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only Claims view over a verified JWT payload
+ *
+ * The payload is scanned once with a streaming parser: top-level scalars
+ * (sub, role, corpId, exp, ...) are kept, while nested objects and arrays
+ * such as authorities are skipped and only their byte range is recorded.
+ * A nested value is decoded the first time it is asked for, so requests
+ * that only read a few scalar claims never build those collections.
+ */
+public final class LazyClaims extends AbstractMap<String, Object> implements Claims {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper(JSON_FACTORY);
+
+    private final byte[] payload;
+
+    /**
+     * Claim name -> scalar value, or Range for a nested value not decoded yet
+     */
+    private final Map<String, Object> values;
+
+    private LazyClaims(byte[] payload, Map<String, Object> values) {
+        this.payload = payload;
+        this.values = values;
+    }
+
+    /**
+     * Scan a decoded payload
+     *
+     * @return the claims, or null if the payload is not a JSON object
+     */
+    static LazyClaims parse(byte[] payload) {
+        Map<String, Object> values = new HashMap<>();
+        try (JsonParser parser = JSON_FACTORY.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                switch (parser.nextToken()) {
+                    case VALUE_STRING:
+                        values.put(name, parser.getText());
+                        break;
+                    case VALUE_NUMBER_INT:
+                    case VALUE_NUMBER_FLOAT:
+                        values.put(name, parser.getNumberValue());
+                        break;
+                    case VALUE_TRUE:
+                        values.put(name, Boolean.TRUE);
+                        break;
+                    case VALUE_FALSE:
+                        values.put(name, Boolean.FALSE);
+                        break;
+                    case VALUE_NULL:
+                        values.remove(name);
+                        break;
+                    case START_OBJECT:
+                    case START_ARRAY:
+                        int start = (int) parser.getTokenLocation().getByteOffset();
+                        parser.skipChildren();
+                        values.put(name, new Range(start, (int) parser.getCurrentLocation().getByteOffset()));
+                        break;
+                    default:
+                        return null;
+                }
+            }
+            if (token != JsonToken.END_OBJECT) {
+                return null;
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return new LazyClaims(payload, values);
+    }
+
+    @Override
+    public Object get(Object name) {
+        Object value = values.get(name);
+        return value instanceof Range ? decode((String) name, (Range) value) : value;
+    }
+
+    @Override
+    public boolean containsKey(Object name) {
+        return values.containsKey(name);
+    }
+
+    @Override
+    public int size() {
+        return values.size();
+    }
+
+    private synchronized Object decode(String name, Range range) {
+        Object current = values.get(name);
+        if (!(current instanceof Range)) {
+            return current;
+        }
+        try {
+            Object value = OBJECT_MAPPER.readValue(payload, range.start, range.end - range.start, Object.class);
+            values.put(name, value);
+            return value;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Decodes every nested value; used by callers that need the whole map (e.g. renewal)
+     */
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        Map<String, Object> all = new LinkedHashMap<>();
+        for (String name : values.keySet().toArray(new String[0])) {
+            all.put(name, get(name));
+        }
+        return Collections.unmodifiableMap(all).entrySet();
+    }
+
+    @Override
+    public String getIssuer() {
+        return getString(Claims.ISSUER);
+    }
+
+    @Override
+    public String getSubject() {
+        return getString(Claims.SUBJECT);
+    }
+
+    @Override
+    public String getAudience() {
+        return getString(Claims.AUDIENCE);
+    }
+
+    @Override
+    public Date getExpiration() {
+        return getDate(Claims.EXPIRATION);
+    }
+
+    @Override
+    public Date getNotBefore() {
+        return getDate(Claims.NOT_BEFORE);
+    }
+
+    @Override
+    public Date getIssuedAt() {
+        return getDate(Claims.ISSUED_AT);
+    }
+
+    @Override
+    public String getId() {
+        return getString(Claims.ID);
+    }
+
+    @Override
+    public <T> T get(String claimName, Class<T> requiredType) {
+        Object value = get(claimName);
+        if (value == null) {
+            return null;
+        }
+        if (requiredType == Date.class && value instanceof Number) {
+            return requiredType.cast(new Date(((Number) value).longValue() * 1000));
+        }
+        if (requiredType == Long.class && value instanceof Number) {
+            return requiredType.cast(((Number) value).longValue());
+        }
+        return requiredType.cast(value);
+    }
+
+    private String getString(String name) {
+        Object value = values.get(name);
+        return value instanceof String ? (String) value : null;
+    }
+
+    private Date getDate(String name) {
+        Object value = values.get(name);
+        return value instanceof Number ? new Date(((Number) value).longValue() * 1000) : null;
+    }
+
+    @Override
+    public Claims setIssuer(String iss) {
+        throw new UnsupportedOperationException("Verified claims are read-only");
+    }
+
+    @Override
+    public Claims setSubject(String sub) {
+        throw new UnsupportedOperationException("Verified claims are read-only");
+    }
+
+    @Override
+    public Claims setAudience(String aud) {
+        throw new UnsupportedOperationException("Verified claims are read-only");
+    }
+
+    @Override
+    public Claims setExpiration(Date exp) {
+        throw new UnsupportedOperationException("Verified claims are read-only");
+    }
+
+    @Override
+    public Claims setNotBefore(Date nbf) {
+        throw new UnsupportedOperationException("Verified claims are read-only");
+    }
+
+    @Override
+    public Claims setIssuedAt(Date iat) {
+        throw new UnsupportedOperationException("Verified claims are read-only");
+    }
+
+    @Override
+    public Claims setId(String jti) {
+        throw new UnsupportedOperationException("Verified claims are read-only");
+    }
+
+    /**
+     * Byte range of a nested value in the payload
+     */
+    private static final class Range {
+        private final int start;
+        private final int end;
+
+        private Range(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.workospoc.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Password encoder shared by the servlet and reactive security configurations
+ */
+@Configuration
+public class PasswordEncoderConfig {
+
+    // Algorithm and cost used for new hashes; older hashes are upgraded on successful login
+    @Value("${security.password.encoder:bcrypt}")
+    private String passwordEncoderId;
+
+    @Value("${security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    @Bean
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", bcrypt);
+        encoders.put("pbkdf2", new Pbkdf2PasswordEncoder());
+
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(passwordEncoderId, encoders);
+        // Legacy hashes are stored without an {id} prefix and are all BCrypt
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        return new MeteredPasswordEncoder(delegating, meterRegistry);
+    }
+}
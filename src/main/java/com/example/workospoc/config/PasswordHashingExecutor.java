@@ -0,0 +1,160 @@
+package com.example.workospoc.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dedicated, core-bounded executor for password verification
+ *
+ * BCrypt is deliberately CPU-heavy. Running it on Tomcat threads lets a
+ * credential-stuffing burst consume every core and starve normal API
+ * traffic. Work submitted here runs on at most security.password.hashing.threads
+ * threads with a bounded queue; when the queue is full callers are rejected
+ * immediately instead of waiting.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingExecutor.class);
+
+    @Value("${security.password.hashing.threads:0}")
+    private int threads;
+
+    @Value("${security.password.hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${security.password.hashing.timeout-ms:5000}")
+    private long timeoutMs;
+
+    private final MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+
+    private Counter rejectedCounter;
+
+    public PasswordHashingExecutor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("auth.password.queue.depth", executor, e -> e.getQueue().size())
+            .description("Password verifications waiting for a hashing thread")
+            .register(meterRegistry);
+        Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount)
+            .description("Password verifications currently running")
+            .register(meterRegistry);
+        rejectedCounter = Counter.builder("auth.password.rejected")
+            .description("Password verifications rejected because the hashing queue was full or timed out")
+            .register(meterRegistry);
+
+        logger.info("Password hashing executor started with {} threads and queue capacity {}", poolSize, queueCapacity);
+    }
+
+    /**
+     * Run a password-verifying task on the hashing pool and wait for its result
+     *
+     * @throws RejectedException if the queue is full or the task does not finish in time
+     * @throws Exception         whatever the task itself threw (e.g. AuthenticationException)
+     */
+    public <T> T execute(Callable<T> task) throws Exception {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new RejectedException("Password hashing queue is full");
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new RejectedException("Password hashing timed out after " + timeoutMs + " ms");
+        }
+    }
+
+    /**
+     * Non-blocking variant of execute() for the reactive stack: the task runs
+     * on the hashing pool and the result is emitted from there
+     *
+     * Errors with RejectedException if the queue is full or the task does not
+     * finish in time, otherwise with whatever the task threw.
+     */
+    public <T> Mono<T> executeAsync(Callable<T> task) {
+        return Mono.defer(() -> {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            Future<?> future;
+            try {
+                future = executor.submit(() -> {
+                    try {
+                        result.complete(task.call());
+                    } catch (Throwable e) {
+                        result.completeExceptionally(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                rejectedCounter.increment();
+                return Mono.error(new RejectedException("Password hashing queue is full"));
+            }
+            return Mono.fromFuture(result)
+                .timeout(Duration.ofMillis(timeoutMs), Mono.defer(() -> {
+                    future.cancel(true);
+                    rejectedCounter.increment();
+                    return Mono.error(new RejectedException("Password hashing timed out after " + timeoutMs + " ms"));
+                }));
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Thrown when the hashing pool cannot accept more work; maps to 503
+     */
+    public static class RejectedException extends RuntimeException {
+        public RejectedException(String message) {
+            super(message);
+        }
+    }
+}
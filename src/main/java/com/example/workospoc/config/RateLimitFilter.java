@@ -0,0 +1,53 @@
+package com.example.workospoc.config;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Per-client-IP rate limiting for /api/auth/login and /auth/workos/callback
+ *
+ * Registered as a servlet filter ahead of the Spring Security chain, so
+ * rejected requests never reach authentication.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String LOGIN_PATH = "/api/auth/login";
+    private static final String CALLBACK_PATH = "/auth/workos/callback";
+
+    private final AuthRateLimiter authRateLimiter;
+
+    public RateLimitFilter(AuthRateLimiter authRateLimiter) {
+        this.authRateLimiter = authRateLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return !LOGIN_PATH.equals(path) && !CALLBACK_PATH.equals(path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        long retryAfterNanos = LOGIN_PATH.equals(request.getServletPath())
+            ? authRateLimiter.tryAcquireLogin(request.getRemoteAddr())
+            : authRateLimiter.tryAcquireCallback(request.getRemoteAddr());
+
+        if (retryAfterNanos > 0) {
+            logger.debug("Rate limit exceeded for " + request.getRemoteAddr() + " on " + request.getServletPath());
+            AuthRateLimiter.reject(response, retryAfterNanos);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
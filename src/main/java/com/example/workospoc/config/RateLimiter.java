@@ -0,0 +1,137 @@
+package com.example.workospoc.config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free keyed token-bucket rate limiter
+ *
+ * Implemented as GCRA (generic cell rate algorithm): each key holds a single
+ * AtomicLong "theoretical arrival time", so an admission decision is one read
+ * and one CAS - no locks and no allocation for keys already tracked. The key
+ * map is bounded; when it is full, fully refilled buckets (equivalent to
+ * absent keys) are swept, and if that is not enough new keys share a single
+ * overflow bucket.
+ */
+public class RateLimiter {
+
+    static final String OVERFLOW_KEY = "__overflow__";
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final int maxKeys;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweepNanos = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param permitsPerSecond sustained rate per key
+     * @param burst            requests a key may make back to back after being idle
+     * @param maxKeys          upper bound on tracked keys
+     */
+    public RateLimiter(double permitsPerSecond, int burst, int maxKeys) {
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * Math.max(burst - 1, 0);
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Try to take one permit for the given key
+     *
+     * @return 0 if the request is allowed, otherwise nanoseconds until a permit is available
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        AtomicLong arrival = buckets.get(key);
+        if (arrival == null) {
+            arrival = bucketFor(key, now);
+        }
+
+        for (;;) {
+            long tat = arrival.get();
+            long allowAt = tat - burstToleranceNanos;
+            if (now - allowAt < 0) {
+                return allowAt - now;
+            }
+            long next = (tat - now < 0 ? now : tat) + emissionIntervalNanos;
+            if (arrival.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Take one permit for the given key, reserving the next free one if none is available now
+     *
+     * Reservations are spaced one emission interval apart, so callers that
+     * wait out the returned delay go out at the sustained rate instead of
+     * all at once.
+     *
+     * @return nanoseconds to wait before using the permit (0 = now), or -1 if
+     *         the next permit is further away than maxWaitNanos (nothing is reserved)
+     */
+    public long reserve(String key, long maxWaitNanos) {
+        long now = System.nanoTime();
+        AtomicLong arrival = buckets.get(key);
+        if (arrival == null) {
+            arrival = bucketFor(key, now);
+        }
+
+        for (;;) {
+            long tat = arrival.get();
+            long wait = Math.max(tat - burstToleranceNanos - now, 0);
+            if (wait > maxWaitNanos) {
+                return -1;
+            }
+            long next = (tat - now < 0 ? now : tat) + emissionIntervalNanos;
+            if (arrival.compareAndSet(tat, next)) {
+                return wait;
+            }
+        }
+    }
+
+    /**
+     * Admit nothing for the key for the given time, then resume at the
+     * sustained rate with an empty burst allowance
+     */
+    public void block(String key, long nanos) {
+        long now = System.nanoTime();
+        AtomicLong arrival = buckets.get(key);
+        if (arrival == null) {
+            arrival = bucketFor(key, now);
+        }
+
+        long blockedTat = now + nanos + burstToleranceNanos;
+        for (;;) {
+            long tat = arrival.get();
+            if (tat - blockedTat >= 0 || arrival.compareAndSet(tat, blockedTat)) {
+                return;
+            }
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private AtomicLong bucketFor(String key, long now) {
+        if (buckets.size() >= maxKeys) {
+            sweep(now);
+            if (buckets.size() >= maxKeys) {
+                return buckets.computeIfAbsent(OVERFLOW_KEY, k -> new AtomicLong(now));
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+
+    /**
+     * Remove buckets that have fully refilled; at most one sweep per emission interval
+     */
+    private void sweep(long now) {
+        long last = lastSweepNanos.get();
+        if (now - last < emissionIntervalNanos || !lastSweepNanos.compareAndSet(last, now)) {
+            return;
+        }
+        buckets.entrySet().removeIf(entry -> now - entry.getValue().get() >= 0);
+    }
+}
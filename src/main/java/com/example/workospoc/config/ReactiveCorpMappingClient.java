@@ -0,0 +1,68 @@
+package com.example.workospoc.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Non-blocking client for the corp-mapping per-user corpId lookup, used by
+ * the reactive SSO callback
+ *
+ * Same endpoint, response shapes and timeouts as CorpMappingClient, but the
+ * request does not hold a thread while waiting for the upstream.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCorpMappingClient {
+
+    private final WebClient webClient;
+    private final WorkOSConfig workOSConfig;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public ReactiveCorpMappingClient(WebClient.Builder webClientBuilder, WorkOSConfig workOSConfig) {
+        HttpClient httpClient = HttpClient.create()
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000)
+            .responseTimeout(Duration.ofSeconds(10));
+        this.webClient = webClientBuilder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+        this.workOSConfig = workOSConfig;
+    }
+
+    /**
+     * Look up a user's corpId
+     *
+     * @return the corpId, or empty if the response does not contain one
+     */
+    public Mono<String> fetchUserCorpId(String organizationId, String email) {
+        return Mono.fromCallable(() -> CorpMappingClient.userCorpIdPathAndQuery(workOSConfig, organizationId, email))
+            .flatMap(this::get)
+            .flatMap(jsonNode -> Mono.justOrEmpty(CorpMappingClient.corpIdFrom(jsonNode)));
+    }
+
+    private Mono<JsonNode> get(String pathAndQuery) {
+        // Already encoded, so pass a URI rather than a template
+        URI uri = URI.create(workOSConfig.getCorpMappingApiBaseUrl() + pathAndQuery);
+        return webClient.get()
+            .uri(uri)
+            .headers(headers -> {
+                String apiKey = workOSConfig.getCorpMappingApiKey();
+                if (apiKey != null && !apiKey.isEmpty()) {
+                    headers.set(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey);
+                }
+                headers.setContentType(MediaType.APPLICATION_JSON);
+            })
+            .retrieve()
+            .bodyToMono(String.class)
+            .flatMap(body -> Mono.fromCallable(() -> objectMapper.readTree(body)));
+    }
+}
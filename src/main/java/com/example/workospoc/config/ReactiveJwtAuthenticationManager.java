@@ -0,0 +1,79 @@
+package com.example.workospoc.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Collections;
+
+/**
+ * Turns a verified bearer token into an authenticated principal for the
+ * reactive stack (the WebFlux counterpart of the second half of JwtRequestFilter)
+ *
+ * WorkOS tokens are mapped from their claims without I/O. Local users are
+ * loaded from the embedded JDBC user store, which blocks, so that lookup runs
+ * on the bounded elastic scheduler.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveJwtAuthenticationManager implements ReactiveAuthenticationManager {
+
+    private final UserDetailsService userDetailsService;
+
+    public ReactiveJwtAuthenticationManager(UserDetailsService userDetailsService) {
+        this.userDetailsService = userDetailsService;
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        if (!(authentication instanceof VerifiedToken)) {
+            return Mono.empty();
+        }
+        JwtValidationResult result = ((VerifiedToken) authentication).getResult();
+        String username = result.getClaims().getSubject();
+        if ("workos".equals(result.getString("source"))) {
+            return Mono.just(authenticated(JwtRequestFilter.workOSPrincipal(username, result)));
+        }
+        return Mono.fromCallable(() -> userDetailsService.loadUserByUsername(username))
+            .subscribeOn(Schedulers.boundedElastic())
+            .map(ReactiveJwtAuthenticationManager::authenticated);
+    }
+
+    private static Authentication authenticated(UserDetails userDetails) {
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
+    /**
+     * Unauthenticated request for a token that ReactiveJwtWebFilter has already verified
+     */
+    public static final class VerifiedToken extends AbstractAuthenticationToken {
+
+        private final JwtValidationResult result;
+
+        public VerifiedToken(JwtValidationResult result) {
+            super(Collections.emptyList());
+            this.result = result;
+        }
+
+        public JwtValidationResult getResult() {
+            return result;
+        }
+
+        @Override
+        public Object getCredentials() {
+            return null;
+        }
+
+        @Override
+        public Object getPrincipal() {
+            return result.getClaims().getSubject();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.workospoc.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.server.WebSession;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.util.context.Context;
+
+import java.util.Collections;
+
+/**
+ * WebFlux counterpart of JwtRequestFilter and SessionAuthenticationFilter,
+ * added to the reactive security chain by ReactiveSecurityConfig
+ *
+ * A bearer token is validated (and checked for revocation) once; the
+ * JwtValidationResult is left in the exchange attributes for the entry
+ * point and controllers, and a valid token is passed to
+ * ReactiveJwtAuthenticationManager. Without a bearer token, the SSO session
+ * attributes stored by the callback are used. Invalid tokens do not end the
+ * request here, so permitted paths still work and protected ones get the
+ * JSON 401 from the entry point.
+ */
+public class ReactiveJwtWebFilter implements WebFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveJwtWebFilter.class);
+
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationRegistry revocationRegistry;
+    private final ReactiveJwtAuthenticationManager authenticationManager;
+    private final TenantStatistics tenantStatistics;
+
+    public ReactiveJwtWebFilter(JwtUtil jwtUtil, TokenRevocationRegistry revocationRegistry,
+                                ReactiveJwtAuthenticationManager authenticationManager,
+                                TenantStatistics tenantStatistics) {
+        this.jwtUtil = jwtUtil;
+        this.revocationRegistry = revocationRegistry;
+        this.authenticationManager = authenticationManager;
+        this.tenantStatistics = tenantStatistics;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long startNanos = System.nanoTime();
+        JwtValidationResult tenantToken = null;
+        String requestTokenHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        Mono<Authentication> authentication;
+        if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
+            JwtValidationResult result = jwtUtil.validate(requestTokenHeader.substring(7));
+            if (result.isValid() && revocationRegistry.isRevoked(result.getString("jti"))) {
+                result = jwtUtil.fail(JwtValidationResult.Reason.REVOKED);
+            }
+            exchange.getAttributes().put(JwtValidationResult.REQUEST_ATTRIBUTE, result);
+
+            if (result.isValid() && result.getClaims().getSubject() != null) {
+                authentication = authenticationManager.authenticate(new ReactiveJwtAuthenticationManager.VerifiedToken(result))
+                    .onErrorResume(AuthenticationException.class, e -> {
+                        logger.debug("Bearer token user could not be loaded: {}", e.getMessage());
+                        return Mono.empty();
+                    });
+                tenantToken = result;
+            } else {
+                logger.debug("Rejected bearer token: {}", result.getReason().getCode());
+                authentication = Mono.empty();
+            }
+        } else {
+            authentication = exchange.getSession().flatMap(ReactiveJwtWebFilter::fromSession);
+        }
+
+        Mono<Void> filtered = authentication
+            .map(ReactiveSecurityContextHolder::withAuthentication)
+            .defaultIfEmpty(Context.empty())
+            .flatMap(context -> chain.filter(exchange).contextWrite(context));
+        // WarmupRunner's own requests are not tenant traffic
+        if (tenantToken == null
+                || WarmupRunner.isWarmupRequest(exchange.getRequest().getHeaders().getFirst(WarmupRunner.WARMUP_HEADER))) {
+            return filtered;
+        }
+
+        // Per-tenant API statistics, as in JwtRequestFilter; a 5xx or an error signal counts as an error
+        JwtValidationResult token = tenantToken;
+        return filtered.doFinally(signal -> {
+            Integer status = exchange.getResponse().getRawStatusCode();
+            tenantStatistics.recordApi(token.getString("connectionId"), JwtRequestFilter.tenantCorpId(token),
+                System.nanoTime() - startNanos, signal == SignalType.ON_ERROR || (status != null && status >= 500));
+        });
+    }
+
+    /**
+     * Session-based authentication for SSO users (see SessionAuthenticationFilter)
+     */
+    private static Mono<Authentication> fromSession(WebSession session) {
+        Boolean isAuthenticated = session.getAttribute("user_authenticated");
+        String userEmail = session.getAttribute("user_email");
+        String userRole = session.getAttribute("user_role");
+        if (!Boolean.TRUE.equals(isAuthenticated) || userEmail == null) {
+            return Mono.empty();
+        }
+        logger.debug("🔐 Found SSO session authentication for user: {}", userEmail);
+        return Mono.just(new UsernamePasswordAuthenticationToken(userEmail, null,
+            Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + userRole))));
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.workospoc.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+/**
+ * WebFlux counterpart of RateLimitFilter: per-client-IP rate limiting for
+ * /api/auth/login and /auth/workos/callback, ahead of the security chain
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ReactiveRateLimitFilter implements WebFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveRateLimitFilter.class);
+
+    private static final String LOGIN_PATH = "/api/auth/login";
+    private static final String CALLBACK_PATH = "/auth/workos/callback";
+
+    private final AuthRateLimiter authRateLimiter;
+
+    public ReactiveRateLimitFilter(AuthRateLimiter authRateLimiter) {
+        this.authRateLimiter = authRateLimiter;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+        if (!LOGIN_PATH.equals(path) && !CALLBACK_PATH.equals(path)) {
+            return chain.filter(exchange);
+        }
+
+        String clientIp = remoteAddress(exchange.getRequest());
+        long retryAfterNanos = LOGIN_PATH.equals(path)
+            ? authRateLimiter.tryAcquireLogin(clientIp)
+            : authRateLimiter.tryAcquireCallback(clientIp);
+
+        if (retryAfterNanos > 0) {
+            logger.debug("Rate limit exceeded for {} on {}", clientIp, path);
+            return AuthRateLimiter.reject(exchange.getResponse(), retryAfterNanos);
+        }
+        return chain.filter(exchange);
+    }
+
+    /**
+     * Client IP in the same form as HttpServletRequest.getRemoteAddr(), or null if unknown
+     */
+    public static String remoteAddress(ServerHttpRequest request) {
+        InetSocketAddress address = request.getRemoteAddress();
+        if (address == null) {
+            return null;
+        }
+        return address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+    }
+}
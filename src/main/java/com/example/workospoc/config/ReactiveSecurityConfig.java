@@ -0,0 +1,119 @@
+package com.example.workospoc.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsConfigurationSource;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Security for the reactive (WebFlux) build, active with the reactive profile
+ *
+ * Same access rules and JSON 401/403 bodies as SecurityConfig. Bearer tokens
+ * are handled by ReactiveJwtWebFilter and ReactiveJwtAuthenticationManager;
+ * nothing is stored in the session, except the SSO attributes the callback
+ * writes itself.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableWebFluxSecurity
+@EnableReactiveMethodSecurity
+public class ReactiveSecurityConfig {
+
+    private static final Map<JwtValidationResult.Reason, byte[]> UNAUTHORIZED_BODIES =
+        new EnumMap<>(JwtValidationResult.Reason.class);
+
+    private static final byte[] FORBIDDEN_BODY = JwtAuthenticationEntryPoint.JsonErrorResponses.body(
+        HttpStatus.FORBIDDEN.value(), "Forbidden", "insufficient_role");
+
+    static {
+        for (JwtValidationResult.Reason reason : JwtValidationResult.Reason.values()) {
+            UNAUTHORIZED_BODIES.put(reason, JwtAuthenticationEntryPoint.JsonErrorResponses.body(
+                HttpStatus.UNAUTHORIZED.value(), "Unauthorized",
+                reason == JwtValidationResult.Reason.VALID ? "unauthorized" : reason.getCode()));
+        }
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, JwtUtil jwtUtil,
+                                                         TokenRevocationRegistry revocationRegistry,
+                                                         ReactiveJwtAuthenticationManager authenticationManager,
+                                                         TenantStatistics tenantStatistics) {
+        return http
+            .cors().and()
+            .csrf().disable()
+            .httpBasic().disable()
+            .formLogin().disable()
+            .logout().disable()  // POST /api/auth/logout is handled by ReactiveAuthController
+            .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+            .authorizeExchange()
+                .pathMatchers("/api/auth/**", "/login").permitAll()
+                .pathMatchers("/auth/workos/callback").permitAll()  // Allow WorkOS callback
+                .pathMatchers("/api/test/**").permitAll()  // Allow test endpoints
+                .pathMatchers("/actuator/health/**").permitAll()  // Liveness/readiness probes
+                .pathMatchers("/api/introspect").permitAll()  // Authenticated by API key in the controller
+                .pathMatchers("/api/admin/tenant-stats").permitAll()  // Operator API key, checked in the controller
+                .pathMatchers("/api/admin/**").denyAll()
+                .anyExchange().authenticated()
+            .and()
+            .exceptionHandling()
+                .authenticationEntryPoint((exchange, e) -> {
+                    Object result = exchange.getAttribute(JwtValidationResult.REQUEST_ATTRIBUTE);
+                    JwtValidationResult.Reason reason = result instanceof JwtValidationResult
+                        ? ((JwtValidationResult) result).getReason()
+                        : JwtValidationResult.Reason.MISSING;
+                    exchange.getResponse().getHeaders().set("WWW-Authenticate", "Bearer");
+                    return JwtAuthenticationEntryPoint.JsonErrorResponses.write(
+                        exchange.getResponse(), HttpStatus.UNAUTHORIZED.value(), UNAUTHORIZED_BODIES.get(reason));
+                })
+                .accessDeniedHandler((exchange, e) -> JwtAuthenticationEntryPoint.JsonErrorResponses.write(
+                    exchange.getResponse(), HttpStatus.FORBIDDEN.value(), FORBIDDEN_BODY))
+            .and()
+            .addFilterAt(new ReactiveJwtWebFilter(jwtUtil, revocationRegistry, authenticationManager, tenantStatistics),
+                SecurityWebFiltersOrder.AUTHENTICATION)
+            .build();
+    }
+
+    /**
+     * Username/password authentication for POST /api/auth/login, run on the
+     * password hashing pool; outdated hashes are upgraded as in the servlet build
+     */
+    @Bean
+    public AuthenticationManager authenticationManager(CustomUserDetailsService userDetailsService,
+                                                       PasswordEncoder passwordEncoder) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(userDetailsService);
+        provider.setUserDetailsPasswordService(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder);
+        return new ProviderManager(provider);
+    }
+
+    @Bean
+    public CorsConfigurationSource corsConfigurationSource() {
+        CorsConfiguration configuration = new CorsConfiguration();
+        configuration.setAllowedOriginPatterns(Arrays.asList("*"));
+        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setAllowCredentials(true);
+
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", configuration);
+        return source;
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.workospoc.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Server-side table for opaque reference tokens (jwt.token-mode: reference)
+ *
+ * A reference token is "rt_" followed by 256 random bits (base64url). It maps
+ * to the principal's claims in a ConcurrentHashMap, so authenticating a
+ * request is one hash lookup instead of base64 decoding, HMAC verification
+ * and JSON parsing. Entries expire with the claims' exp and are purged
+ * periodically. With jwt.reference.persist enabled, entries are also written
+ * to the embedded database (keyed by the SHA-256 of the handle, never the
+ * handle itself) and read through on a miss, so tokens survive restarts.
+ */
+@Component
+public class ReferenceTokenStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceTokenStore.class);
+
+    public static final String HANDLE_PREFIX = "rt_";
+
+    // 32 random bytes, base64url without padding
+    static final int HANDLE_LENGTH = HANDLE_PREFIX.length() + 43;
+
+    private static final TypeReference<Map<String, Object>> CLAIMS_TYPE = new TypeReference<Map<String, Object>>() {};
+
+    @Value("${jwt.reference.max-entries:1000000}")
+    private int maxEntries;
+
+    @Value("${jwt.reference.persist:false}")
+    private boolean persist;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Entry> tokens = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+
+    public ReferenceTokenStore(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("auth.reference-token.entries", tokens, Map::size)
+            .description("Reference tokens held in memory")
+            .register(meterRegistry);
+    }
+
+    public static boolean isHandle(String token) {
+        return token != null && token.startsWith(HANDLE_PREFIX);
+    }
+
+    /**
+     * Mint a handle for the given claims, which must carry an exp
+     *
+     * @return the handle, or null if the table is full
+     */
+    public String issue(Claims claims) {
+        long expiresAt = claims.getExpiration().getTime();
+        if (tokens.size() >= maxEntries) {
+            purgeExpired();
+            if (tokens.size() >= maxEntries) {
+                logger.warn("Reference token table is full ({} entries)", tokens.size());
+                return null;
+            }
+        }
+
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String handle = HANDLE_PREFIX + encoder.encodeToString(bytes);
+        tokens.put(handle, new Entry(claims, expiresAt));
+
+        if (persist) {
+            try {
+                jdbcTemplate.update("INSERT INTO reference_token (handle_hash, claims_json, expires_at) VALUES (?, ?, ?)",
+                    sha256(handle), objectMapper.writeValueAsString(claims), expiresAt);
+            } catch (Exception e) {
+                logger.warn("Could not persist reference token: {}", e.getMessage());
+            }
+        }
+        return handle;
+    }
+
+    /**
+     * @return the claims for a handle (possibly already expired), or null if unknown
+     */
+    public Claims lookup(String handle) {
+        Entry entry = tokens.get(handle);
+        if (entry != null) {
+            return entry.claims;
+        }
+        return persist ? load(handle) : null;
+    }
+
+    private Claims load(String handle) {
+        try {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT claims_json, expires_at FROM reference_token WHERE handle_hash = ?", sha256(handle));
+            if (rows.isEmpty()) {
+                return null;
+            }
+            long expiresAt = ((Number) rows.get(0).get("EXPIRES_AT")).longValue();
+            Claims claims = Jwts.claims(objectMapper.readValue((String) rows.get(0).get("CLAIMS_JSON"), CLAIMS_TYPE));
+            if (expiresAt > System.currentTimeMillis() && tokens.size() < maxEntries) {
+                tokens.put(handle, new Entry(claims, expiresAt));
+            }
+            return claims;
+        } catch (Exception e) {
+            logger.warn("Could not load reference token: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    public void remove(String handle) {
+        tokens.remove(handle);
+        if (persist) {
+            try {
+                jdbcTemplate.update("DELETE FROM reference_token WHERE handle_hash = ?", sha256(handle));
+            } catch (Exception e) {
+                logger.warn("Could not delete reference token: {}", e.getMessage());
+            }
+        }
+    }
+
+    public int size() {
+        return tokens.size();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.reference.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        int before = tokens.size();
+        tokens.values().removeIf(entry -> entry.expiresAt <= now);
+        if (persist) {
+            try {
+                jdbcTemplate.update("DELETE FROM reference_token WHERE expires_at <= ?", now);
+            } catch (Exception e) {
+                logger.debug("Could not purge persisted reference tokens: {}", e.getMessage());
+            }
+        }
+        if (before != tokens.size()) {
+            logger.debug("Purged {} expired reference tokens, {} remaining", before - tokens.size(), tokens.size());
+        }
+    }
+
+    private static String sha256(String handle) throws NoSuchAlgorithmException {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(handle.getBytes(StandardCharsets.US_ASCII));
+        StringBuilder hex = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    private static final class Entry {
+        private final Claims claims;
+        private final long expiresAt;
+
+        private Entry(Claims claims, long expiresAt) {
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.workospoc.config;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,9 +11,10 @@ import java.time.Duration;
 @Configuration
 public class RestClientConfig {
     
+    // Boot only auto-configures a RestTemplateBuilder for the servlet build
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
-        return builder
+    public RestTemplate restTemplate(ObjectProvider<RestTemplateBuilder> builder) {
+        return builder.getIfAvailable(RestTemplateBuilder::new)
             .setConnectTimeout(Duration.ofSeconds(5))
             .setReadTimeout(Duration.ofSeconds(10))
             .build();
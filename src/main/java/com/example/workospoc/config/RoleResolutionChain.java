@@ -0,0 +1,237 @@
+package com.example.workospoc.config;
+
+import com.workos.sso.models.Profile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Configurable, per-connection chain of role sources for SSO users
+ *
+ * Each connection's chain is parsed once at startup into an array of steps
+ * and tried in order; the first step that yields an allowed role wins.
+ * Connections whose IdP sends an authoritative role attribute can resolve
+ * roles from the SAML profile alone, without the corp-mapping API call. The
+ * profile's attribute and group steps are only trusted for connections that
+ * list them under workos.role-resolution.chains; everyone else keeps the
+ * corp-mapping answer (default chain api,poc-test).
+ *
+ * Steps: attribute (SAML attribute, workos.role-resolution.attribute),
+ * groups (IdP group claim, see GroupRoleMapper), api (corp-mapping
+ * /api/user/role, through the identity cache) and poc-test (hard-coded POC
+ * values). If no step yields an allowed role the default role is used.
+ */
+@Component
+public class RoleResolutionChain {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoleResolutionChain.class);
+
+    private static final String CHAIN_PREFIX = "workos.role-resolution.chains.";
+
+    /**
+     * A role source in the chain
+     */
+    public enum Step {
+        ATTRIBUTE("attribute"),
+        GROUPS("groups"),
+        API("api"),
+        POC_TEST("poc-test");
+
+        private final String configName;
+
+        Step(String configName) {
+            this.configName = configName;
+        }
+
+        static Step fromConfigName(String name) {
+            for (Step step : values()) {
+                if (step.configName.equals(name)) {
+                    return step;
+                }
+            }
+            throw new IllegalArgumentException("Unknown role resolution step '" + name
+                + "', expected one of " + Arrays.toString(Arrays.stream(values()).map(s -> s.configName).toArray()));
+        }
+    }
+
+    @Value("${workos.role-resolution.default-chain:api,poc-test}")
+    private String defaultChainSpec;
+
+    @Value("${workos.role-resolution.attribute:customer_role}")
+    private String roleAttribute;
+
+    @Value("${workos.role-resolution.allowed-roles:org_super,org_managerplus,org_manager,org_support,org_user}")
+    private String allowedRolesSpec;
+
+    @Value("${workos.role-resolution.default-role:org_user}")
+    private String defaultRole;
+
+    private final WorkOSConfig workOSConfig;
+    private final CorpMappingClient corpMappingClient;
+    private final IdentityResolutionCache identityResolutionCache;
+    private final GroupRoleMapper groupRoleMapper;
+    private final MeterRegistry meterRegistry;
+
+    private Step[] defaultChain;
+    private Map<String, Step[]> chainsByConnection = Collections.emptyMap();
+    private Set<String> allowedRoles = Collections.emptySet();
+    private final Map<Step, Counter> resolvedCounters = new EnumMap<>(Step.class);
+    private Counter defaultCounter;
+
+    public RoleResolutionChain(WorkOSConfig workOSConfig, CorpMappingClient corpMappingClient,
+                               IdentityResolutionCache identityResolutionCache, GroupRoleMapper groupRoleMapper,
+                               MeterRegistry meterRegistry) {
+        this.workOSConfig = workOSConfig;
+        this.corpMappingClient = corpMappingClient;
+        this.identityResolutionCache = identityResolutionCache;
+        this.groupRoleMapper = groupRoleMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        allowedRoles = new HashSet<>(split(allowedRolesSpec));
+        if (!allowedRoles.contains(defaultRole)) {
+            throw new IllegalStateException("workos.role-resolution.default-role '" + defaultRole + "' is not an allowed role");
+        }
+        defaultChain = parseChain(defaultChainSpec);
+
+        Map<String, Step[]> chains = new HashMap<>();
+        workOSConfig.collectPrefixedProperties(CHAIN_PREFIX).get(CHAIN_PREFIX)
+            .forEach((connectionId, spec) -> chains.put(connectionId, parseChain(spec)));
+        chainsByConnection = chains;
+
+        for (Step step : Step.values()) {
+            resolvedCounters.put(step, resolvedCounter(step.configName));
+        }
+        defaultCounter = resolvedCounter("default");
+
+        logger.info("Role resolution chain: default {}, {} per-connection overrides, allowed roles {}",
+            Arrays.toString(defaultChain), chains.size(), allowedRoles);
+    }
+
+    private Counter resolvedCounter(String source) {
+        return Counter.builder("auth.role.resolved")
+            .description("SSO role resolutions by the source that produced the role")
+            .tag("source", source)
+            .register(meterRegistry);
+    }
+
+    private static Step[] parseChain(String spec) {
+        List<Step> steps = new ArrayList<>();
+        for (String name : split(spec)) {
+            steps.add(Step.fromConfigName(name.toLowerCase(Locale.ROOT)));
+        }
+        return steps.toArray(new Step[0]);
+    }
+
+    private static List<String> split(String spec) {
+        List<String> values = new ArrayList<>();
+        for (String value : spec.split(",")) {
+            if (!value.trim().isEmpty()) {
+                values.add(value.trim());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Resolve the system role for an SSO profile
+     */
+    public Resolution resolve(Profile profile) {
+        Step[] chain = profile.connectionId != null
+            ? chainsByConnection.getOrDefault(profile.connectionId, defaultChain)
+            : defaultChain;
+
+        for (Step step : chain) {
+            String role = apply(step, profile);
+            if (role == null) {
+                continue;
+            }
+            if (allowedRoles.contains(role)) {
+                resolvedCounters.get(step).increment();
+                return new Resolution(role, step.configName);
+            }
+            logger.warn("Ignoring unknown role '{}' from {} for {}", role, step.configName, profile.email);
+        }
+        defaultCounter.increment();
+        return new Resolution(defaultRole, "default");
+    }
+
+    private String apply(Step step, Profile profile) {
+        switch (step) {
+            case ATTRIBUTE:
+                Object value = profile.rawAttributes != null ? profile.rawAttributes.get(roleAttribute) : null;
+                return value != null && !value.toString().trim().isEmpty() ? value.toString().trim() : null;
+            case GROUPS:
+                return groupRoleMapper.resolve(profile);
+            case API:
+                return fetchRoleFromApi(profile);
+            case POC_TEST:
+                // TODO: Remove hardcoded values once API is integrated
+                return profile.email != null && profile.email.contains("rleon") ? "org_super" : "org_user";
+            default:
+                return null;
+        }
+    }
+
+    private String fetchRoleFromApi(Profile profile) {
+        if (profile.organizationId == null || profile.email == null) {
+            return null;
+        }
+        String role = identityResolutionCache.getRole(profile.organizationId, profile.email);
+        if (role != null) {
+            return role;
+        }
+        try {
+            logger.info("Attempting to fetch role from system API for: {} in org: {}", profile.email, profile.organizationId);
+            role = corpMappingClient.fetchUserRole(profile.organizationId, profile.email);
+            if (role != null) {
+                identityResolutionCache.putRole(profile.organizationId, profile.email, role);
+            } else {
+                logger.warn("Role not found in API response for user: {} in org: {}", profile.email, profile.organizationId);
+            }
+            return role;
+        } catch (Exception e) {
+            logger.warn("Error fetching role from system API: {}", e.getMessage());
+            logger.debug("Error details: ", e);
+            return null;
+        }
+    }
+
+    /**
+     * A resolved role and the step that produced it
+     */
+    public static final class Resolution {
+        private final String role;
+        private final String source;
+
+        Resolution(String role, String source) {
+            this.role = role;
+            this.source = source;
+        }
+
+        public String getRole() {
+            return role;
+        }
+
+        public String getSource() {
+            return source;
+        }
+    }
+}
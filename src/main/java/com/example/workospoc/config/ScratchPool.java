@@ -0,0 +1,45 @@
+package com.example.workospoc.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Reusable per-caller scratch state (an initialized Mac and buffers) for
+ * HmacSha256Signer and HmacSha256Verifier
+ *
+ * Platform threads keep one instance each in a ThreadLocal. A virtual thread
+ * lives for a single request, so a ThreadLocal would build and then drop a
+ * fresh instance every time; virtual threads instead borrow from a small
+ * bounded pool and hand the instance back. When the pool is empty a new
+ * instance is created, and instances beyond the pool's capacity are dropped
+ * on release, so the pool never holds more than a few per CPU.
+ */
+final class ScratchPool<T> {
+
+    private final Supplier<T> factory;
+    private final ThreadLocal<T> perThread;
+    private final ArrayBlockingQueue<T> pool;
+
+    ScratchPool(Supplier<T> factory) {
+        this.factory = factory;
+        this.perThread = ThreadLocal.withInitial(factory);
+        this.pool = new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    T acquire() {
+        if (!VirtualThreadConfig.isCurrentThreadVirtual()) {
+            return perThread.get();
+        }
+        T scratch = pool.poll();
+        return scratch != null ? scratch : factory.get();
+    }
+
+    /**
+     * Return what acquire() handed out; a no-op on platform threads
+     */
+    void release(T scratch) {
+        if (VirtualThreadConfig.isCurrentThreadVirtual()) {
+            pool.offer(scratch);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.workospoc.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -10,7 +11,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -20,6 +20,7 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import java.util.Arrays;
 
 @Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @EnableWebSecurity
 @EnableGlobalMethodSecurity(prePostEnabled = true)
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
@@ -36,10 +37,14 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     @Autowired
     private JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
+    @Autowired
+    private JsonAccessDeniedHandler jsonAccessDeniedHandler;
+
+    @Autowired
+    private TokenRevocationLogoutHandler tokenRevocationLogoutHandler;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
 
     @Bean
     @Override
@@ -62,7 +67,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
     @Override
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
-        auth.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder());
+        auth.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder);
     }
 
     @Override
@@ -72,16 +77,23 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                 .antMatchers("/api/auth/**", "/login").permitAll()
                 .antMatchers("/auth/workos/callback").permitAll()  // Allow WorkOS callback
                 .antMatchers("/api/test/**").permitAll()  // Allow test endpoints
+                .antMatchers("/actuator/health/**").permitAll()  // Liveness/readiness probes
+                .antMatchers("/api/introspect").permitAll()  // Authenticated by API key in the controller
+                .antMatchers("/api/admin/tenant-stats").permitAll()  // Operator API key, checked in the controller
+                .antMatchers("/api/admin/**").denyAll()
                 .antMatchers("/api/me").authenticated()
                 .anyRequest().authenticated()
             .and()
-            .exceptionHandling().authenticationEntryPoint(jwtAuthenticationEntryPoint)
+            .exceptionHandling()
+                .authenticationEntryPoint(jwtAuthenticationEntryPoint)
+                .accessDeniedHandler(jsonAccessDeniedHandler)
             .and()
             // Allow sessions for SSO authentication alongside stateless JWT
             .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED)
             .and()
             .logout()
                 .logoutUrl("/api/auth/logout")
+                .addLogoutHandler(tokenRevocationLogoutHandler)  // Revoke the presented JWT
                 .logoutSuccessUrl("/login")
                 .invalidateHttpSession(true)
                 .deleteCookies("JSESSIONID");
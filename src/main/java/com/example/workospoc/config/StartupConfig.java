@@ -0,0 +1,28 @@
+package com.example.workospoc.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Startup tuning for the fast-startup profile
+ *
+ * With spring.main.lazy-initialization=true beans are only created when first
+ * used. Beans that run scheduled background work must still start eagerly,
+ * otherwise their schedules would never be registered.
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerBackgroundBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+            TokenRevocationRegistry.class,
+            CorpMappingSynchronizer.class,
+            IdentityResolutionCache.class,
+            ReferenceTokenStore.class,
+            VirtualThreadPinningMonitor.class,
+            TenantStatistics.class
+        );
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.workospoc.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures boot-to-ready and time-to-first-request, both from JVM start,
+ * and request latency during the first minute after ready
+ *
+ * Results are logged and published as app.startup.ready.ms,
+ * app.startup.first-request.ms and the app.startup.first-minute.latency timer
+ * (compare runs with warmup.enabled on and off to see the warm-up effect).
+ * Warm-up loopback requests are ignored. With startup.exit-after-ready=true the
+ * application exits as soon as it is ready, which is used to train the
+ * AppCDS archive (see build-cds-archive.sh).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class StartupTimingFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimingFilter.class);
+
+    @Value("${startup.exit-after-ready:false}")
+    private boolean exitAfterReady;
+
+    private static final long FIRST_MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final MeterRegistry meterRegistry;
+    private final Timer firstMinuteLatency;
+    private final AtomicBoolean firstRequestSeen = new AtomicBoolean();
+    private final AtomicBoolean firstMinuteReported = new AtomicBoolean();
+
+    private volatile long readyMs = -1;
+    private volatile long firstRequestMs = -1;
+    private volatile long readyNanos;
+    private volatile boolean done;
+
+    public StartupTimingFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.firstMinuteLatency = Timer.builder("app.startup.first-minute.latency")
+            .description("Latency of requests served in the first minute after ready")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady(ApplicationReadyEvent event) {
+        readyMs = sinceJvmStart();
+        readyNanos = System.nanoTime();
+        Gauge.builder("app.startup.ready.ms", this, f -> f.readyMs).register(meterRegistry);
+        Gauge.builder("app.startup.first-request.ms", this, f -> f.firstRequestMs).register(meterRegistry);
+        logger.info("⏱️ Application ready {} ms after JVM start", readyMs);
+
+        if (exitAfterReady) {
+            logger.info("startup.exit-after-ready is set, exiting");
+            System.exit(SpringApplication.exit(event.getApplicationContext(), () -> 0));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return done || WarmupRunner.isWarmupRequest(request.getHeader(WarmupRunner.WARMUP_HEADER));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long end = System.nanoTime();
+            if (firstRequestSeen.compareAndSet(false, true)) {
+                firstRequestMs = sinceJvmStart();
+                logger.info("⏱️ First request ({} {}) completed {} ms after JVM start",
+                    request.getMethod(), request.getRequestURI(), firstRequestMs);
+            }
+
+            if (readyNanos == 0 || end - readyNanos < FIRST_MINUTE_NANOS) {
+                firstMinuteLatency.record(end - start, TimeUnit.NANOSECONDS);
+            } else if (firstMinuteReported.compareAndSet(false, true)) {
+                done = true;
+                logger.info("⏱️ First minute after ready: {} requests, mean {} ms, max {} ms",
+                    firstMinuteLatency.count(),
+                    String.format("%.1f", firstMinuteLatency.mean(TimeUnit.MILLISECONDS)),
+                    String.format("%.1f", firstMinuteLatency.max(TimeUnit.MILLISECONDS)));
+            }
+        }
+    }
+
+    private static long sinceJvmStart() {
+        return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+}
@@ -0,0 +1,360 @@
+package com.example.workospoc.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Weighted fair-share scheduler for SSO callback processing
+ *
+ * Each tenant (WorkOS connectionId, or organizationId) gets its own bounded
+ * queue; a fixed set of workers serves the queues by deficit round robin, so
+ * a login storm from one large IdP cannot take every worker while small
+ * tenants time out. Work that waits past its deadline is shed instead of run,
+ * and a tenant whose queue is full is rejected immediately, which also frees
+ * the request thread. The request thread waits for its work's result, so each
+ * tenant may hold at most max-in-flight-per-tenant request threads (queued or
+ * running) and further callbacks are rejected before they enqueue; one
+ * tenant's storm cannot park the whole Tomcat pool. Tenants beyond
+ * max-tenants share one overflow queue so per-tenant metrics stay bounded.
+ *
+ * With virtual threads active the workers are virtual and their number is
+ * workos.callback.scheduler.virtual-workers; the lock is a ReentrantLock
+ * rather than a monitor so waiting workers do not pin their carrier thread.
+ */
+@Component
+public class TenantFairScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantFairScheduler.class);
+
+    static final String OVERFLOW_TENANT = "__overflow__";
+
+    private static final int QUEUED = 0;
+    private static final int RUNNING = 1;
+    private static final int CANCELLED = 2;
+
+    @Value("${workos.callback.scheduler.enabled:true}")
+    private boolean enabled;
+
+    @Value("${workos.callback.scheduler.workers:16}")
+    private int workerCount;
+
+    // Used instead of workers when virtual threads are active; idle virtual workers cost almost nothing
+    @Value("${workos.callback.scheduler.virtual-workers:256}")
+    private int virtualWorkerCount;
+
+    @Value("${workos.callback.scheduler.max-queue-depth-per-tenant:100}")
+    private int maxQueueDepthPerTenant;
+
+    // Request threads a tenant may hold waiting for or running its callbacks
+    @Value("${workos.callback.scheduler.max-in-flight-per-tenant:32}")
+    private int maxInFlightPerTenant;
+
+    @Value("${workos.callback.scheduler.max-queued:2000}")
+    private int maxQueued;
+
+    @Value("${workos.callback.scheduler.queue-timeout-ms:5000}")
+    private long queueTimeoutMs;
+
+    @Value("${workos.callback.scheduler.max-tenants:500}")
+    private int maxTenants;
+
+    /**
+     * Comma-separated tenant:weight pairs, e.g. "conn_a:4,conn_b:2" (default weight 1)
+     */
+    @Value("${workos.callback.scheduler.weights:}")
+    private String weightsSpec;
+
+    private final MeterRegistry meterRegistry;
+    private final VirtualThreadConfig virtualThreadConfig;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final Map<String, TenantQueue> tenants = new HashMap<>();
+    private final ArrayDeque<TenantQueue> activeTenants = new ArrayDeque<>();
+    private final Map<String, Integer> weights = new HashMap<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private int queued;
+    private volatile boolean running = true;
+
+    public TenantFairScheduler(MeterRegistry meterRegistry, VirtualThreadConfig virtualThreadConfig) {
+        this.meterRegistry = meterRegistry;
+        this.virtualThreadConfig = virtualThreadConfig;
+    }
+
+    @PostConstruct
+    public void init() {
+        for (String pair : weightsSpec.split(",")) {
+            int colon = pair.lastIndexOf(':');
+            if (colon > 0) {
+                try {
+                    weights.put(pair.substring(0, colon).trim(), Math.max(1, Integer.parseInt(pair.substring(colon + 1).trim())));
+                } catch (NumberFormatException e) {
+                    logger.warn("Ignoring invalid callback scheduler weight: {}", pair);
+                }
+            }
+        }
+        if (!enabled) {
+            return;
+        }
+        boolean virtual = virtualThreadConfig.isActive();
+        int count = virtual ? virtualWorkerCount : workerCount;
+        ThreadFactory threadFactory = virtualThreadConfig.threadFactory("callback-worker-");
+        for (int i = 0; i < count; i++) {
+            Thread worker = threadFactory.newThread(this::workLoop);
+            worker.start();
+            workers.add(worker);
+        }
+        logger.info("Callback fair-share scheduler started with {} {} workers, {} per-tenant queue depth, weights {}",
+            count, virtual ? "virtual" : "platform", maxQueueDepthPerTenant, weights);
+    }
+
+    /**
+     * Run work on behalf of a tenant and wait for its result
+     *
+     * @throws RejectedException if the tenant's queue (or the global bound) is
+     *                           full, or the work was not started before its deadline
+     * @throws Exception         whatever the work itself threw
+     */
+    public <T> T execute(String tenant, Callable<T> work) throws Exception {
+        if (!enabled) {
+            return work.call();
+        }
+        long now = System.nanoTime();
+        Task<T> task = new Task<>(work, now, now + TimeUnit.MILLISECONDS.toNanos(queueTimeoutMs));
+        TenantQueue queue = enqueue(tenant != null ? tenant : OVERFLOW_TENANT, task);
+
+        try {
+            return task.result.get(queueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (task.state.compareAndSet(QUEUED, CANCELLED)) {
+                queue.shedDeadline.increment();
+                throw new RejectedException("Callback for tenant " + queue.tenant + " not started within " + queueTimeoutMs + " ms");
+            }
+            // Already running: the deadline only applies to queueing
+            return unwrap(task);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        } finally {
+            queue.inFlight.decrementAndGet();
+        }
+    }
+
+    private <T> T unwrap(Task<T> task) throws Exception {
+        try {
+            return task.result.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    private TenantQueue enqueue(String tenant, Task<?> task) {
+        lock.lock();
+        try {
+            TenantQueue queue = tenants.get(tenant);
+            if (queue == null) {
+                if (tenants.size() >= maxTenants && !OVERFLOW_TENANT.equals(tenant)) {
+                    return enqueue(OVERFLOW_TENANT, task);
+                }
+                queue = new TenantQueue(tenant, weights.getOrDefault(tenant, 1));
+                tenants.put(tenant, queue);
+            }
+            if (queue.inFlight.get() >= maxInFlightPerTenant) {
+                queue.shedInFlight.increment();
+                logger.warn("Callback for tenant {} rejected: {} request threads already in flight", tenant, queue.inFlight.get());
+                throw new RejectedException("Too many callbacks in flight for tenant " + tenant);
+            }
+            if (queue.tasks.size() >= maxQueueDepthPerTenant || queued >= maxQueued) {
+                queue.shedFull.increment();
+                logger.warn("Callback queue full for tenant {} ({} queued, {} total), shedding", tenant, queue.tasks.size(), queued);
+                throw new RejectedException("Callback queue full for tenant " + tenant);
+            }
+            task.queue = queue;
+            queue.inFlight.incrementAndGet();
+            queue.tasks.addLast(task);
+            queued++;
+            if (!queue.active) {
+                queue.active = true;
+                activeTenants.addLast(queue);
+            }
+            workAvailable.signal();
+            return queue;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deficit round robin with unit cost: a tenant is served up to its weight
+     * in consecutive tasks before moving to the back of the ring
+     */
+    private Task<?> next() throws InterruptedException {
+        lock.lock();
+        try {
+            while (queued == 0) {
+                workAvailable.await();
+            }
+            TenantQueue queue = activeTenants.peekFirst();
+            if (queue.deficit == 0) {
+                queue.deficit = queue.weight;
+            }
+            Task<?> task = queue.tasks.pollFirst();
+            queue.deficit--;
+            queued--;
+            if (queue.tasks.isEmpty()) {
+                activeTenants.pollFirst();
+                queue.active = false;
+                queue.deficit = 0;
+            } else if (queue.deficit == 0) {
+                activeTenants.addLast(activeTenants.pollFirst());
+            }
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void workLoop() {
+        while (running) {
+            Task<?> task;
+            try {
+                task = next();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            run(task);
+        }
+    }
+
+    private <T> void run(Task<T> task) {
+        long now = System.nanoTime();
+        if (now - task.deadline > 0) {
+            if (task.state.compareAndSet(QUEUED, CANCELLED)) {
+                task.queue.shedDeadline.increment();
+                task.result.completeExceptionally(new RejectedException(
+                    "Callback for tenant " + task.queue.tenant + " shed after waiting past its deadline"));
+            }
+            return;
+        }
+        if (!task.state.compareAndSet(QUEUED, RUNNING)) {
+            return;  // the caller gave up
+        }
+        task.queue.waitTimer.record(now - task.enqueuedAt, TimeUnit.NANOSECONDS);
+        try {
+            task.result.complete(task.work.call());
+        } catch (Exception e) {
+            task.result.completeExceptionally(e);
+        } catch (Error e) {
+            task.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+    }
+
+    private final class TenantQueue {
+        private final String tenant;
+        private final int weight;
+        private final ArrayDeque<Task<?>> tasks = new ArrayDeque<>();
+        // Request threads inside execute for this tenant (incremented under the lock)
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Counter shedFull;
+        private final Counter shedInFlight;
+        private final Counter shedDeadline;
+        private final Timer waitTimer;
+        private boolean active;
+        private int deficit;
+
+        private TenantQueue(String tenant, int weight) {
+            this.tenant = tenant;
+            this.weight = weight;
+            Gauge.builder("auth.callback.queue.depth", this, TenantFairScheduler.this::queueDepth)
+                .description("Callbacks waiting for a worker, per tenant")
+                .tag("tenant", tenant)
+                .register(meterRegistry);
+            this.shedFull = shedCounter(tenant, "queue_full");
+            this.shedInFlight = shedCounter(tenant, "in_flight");
+            this.shedDeadline = shedCounter(tenant, "deadline");
+            this.waitTimer = Timer.builder("auth.callback.queue.wait")
+                .description("Time callbacks waited for a worker, per tenant")
+                .tag("tenant", tenant)
+                .register(meterRegistry);
+        }
+    }
+
+    private int queueDepth(TenantQueue queue) {
+        lock.lock();
+        try {
+            return queue.tasks.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Counter shedCounter(String tenant, String reason) {
+        return Counter.builder("auth.callback.queue.shed")
+            .description("Callbacks shed by the fair-share scheduler")
+            .tag("tenant", tenant)
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+
+    private static final class Task<T> {
+        private final Callable<T> work;
+        private final long enqueuedAt;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private TenantQueue queue;
+
+        private Task(Callable<T> work, long enqueuedAt, long deadline) {
+            this.work = work;
+            this.enqueuedAt = enqueuedAt;
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * Thrown when a callback is shed; the caller should fail fast
+     */
+    public static class RejectedException extends RuntimeException {
+        public RejectedException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.workospoc.config;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.PackedHistogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-tenant latency, error and request statistics for the SSO callback and
+ * bearer-token API requests
+ *
+ * Micrometer timers are per application, which cannot tell whether slow
+ * logins come from one IdP (an Okta or Entra ID connection) or which corpId
+ * generates the load. Every callback and API request is recorded twice,
+ * keyed by connectionId and by corpId, into an HdrHistogram Recorder and an
+ * error counter for that tenant. Recording only allocates when a tenant's
+ * histogram grows to cover a larger latency; readers take interval
+ * histograms from the Recorder and merge them into their own packed
+ * copies, so a snapshot never pauses recording. The Recorder itself is not
+ * the packed variant: in HdrHistogram 2.1.12 (and 2.2.2) a packed array
+ * resizing while the reader flips intervals deadlocks writers and reader.
+ * Each dimension tracks at most max-tenants keys, further tenants share the
+ * "__overflow__" entry, and requests without the attribute (e.g. local
+ * users have no connectionId) are kept under "__none__".
+ */
+@Component
+public class TenantStatistics {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantStatistics.class);
+
+    static final String OVERFLOW_TENANT = RateLimiter.OVERFLOW_KEY;
+    static final String NO_TENANT = "__none__";
+
+    @Value("${stats.tenant.enabled:true}")
+    private boolean enabled;
+
+    @Value("${stats.tenant.max-tenants:200}")
+    private int maxTenants;
+
+    @Value("${stats.tenant.significant-digits:2}")
+    private int significantDigits;
+
+    @Value("${stats.tenant.interval-ms:60000}")
+    private long intervalMs;
+
+    private Dimension callbacksByConnection;
+    private Dimension callbacksByCorp;
+    private Dimension apiByConnection;
+    private Dimension apiByCorp;
+
+    private volatile long intervalStartMillis = System.currentTimeMillis();
+    private volatile long previousIntervalMillis;
+
+    @PostConstruct
+    public void init() {
+        callbacksByConnection = new Dimension();
+        callbacksByCorp = new Dimension();
+        apiByConnection = new Dimension();
+        apiByCorp = new Dimension();
+        logger.info("Tenant statistics {}: up to {} tenants per dimension, {} ms interval",
+            enabled ? "enabled" : "disabled", maxTenants, intervalMs);
+    }
+
+    /**
+     * Record one SSO callback (including rejected and failed ones)
+     */
+    public void recordCallback(String connectionId, String corpId, long nanos, boolean error) {
+        if (enabled) {
+            callbacksByConnection.record(connectionId, nanos, error);
+            callbacksByCorp.record(corpId, nanos, error);
+        }
+    }
+
+    /**
+     * Record one request authenticated by a bearer token
+     */
+    public void recordApi(String connectionId, String corpId, long nanos, boolean error) {
+        if (enabled) {
+            apiByConnection.record(connectionId, nanos, error);
+            apiByCorp.record(corpId, nanos, error);
+        }
+    }
+
+    /**
+     * Close the current interval; its figures are reported as lastInterval until the next roll
+     */
+    @Scheduled(initialDelayString = "${stats.tenant.interval-ms:60000}", fixedRateString = "${stats.tenant.interval-ms:60000}")
+    public void roll() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Dimension dimension : dimensions()) {
+            for (TenantStats stats : dimension.tenants.values()) {
+                stats.roll();
+            }
+        }
+        previousIntervalMillis = now - intervalStartMillis;
+        intervalStartMillis = now;
+    }
+
+    /**
+     * Totals since startup and for the last completed interval, per tenant and
+     * busiest first: {"callback": {"connection": {...}, "corp": {...}}, "api": {...}}
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> callbacks = new LinkedHashMap<>();
+        callbacks.put("connection", callbacksByConnection.snapshot(previousIntervalMillis));
+        callbacks.put("corp", callbacksByCorp.snapshot(previousIntervalMillis));
+        Map<String, Object> api = new LinkedHashMap<>();
+        api.put("connection", apiByConnection.snapshot(previousIntervalMillis));
+        api.put("corp", apiByCorp.snapshot(previousIntervalMillis));
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("intervalMs", intervalMs);
+        snapshot.put("intervalStartedAt", intervalStartMillis);
+        snapshot.put("maxTenants", maxTenants);
+        snapshot.put("callback", callbacks);
+        snapshot.put("api", api);
+        return snapshot;
+    }
+
+    private List<Dimension> dimensions() {
+        List<Dimension> dimensions = new ArrayList<>(4);
+        dimensions.add(callbacksByConnection);
+        dimensions.add(callbacksByCorp);
+        dimensions.add(apiByConnection);
+        dimensions.add(apiByCorp);
+        return dimensions;
+    }
+
+    /**
+     * Tenants of one kind (connectionId or corpId) for one request type
+     */
+    private final class Dimension {
+
+        private final ConcurrentHashMap<String, TenantStats> tenants = new ConcurrentHashMap<>();
+
+        void record(String tenant, long nanos, boolean error) {
+            String key = tenant != null && !tenant.isEmpty() ? tenant : NO_TENANT;
+            TenantStats stats = tenants.get(key);
+            if (stats == null) {
+                stats = statsFor(key);
+            }
+            stats.recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+            if (error) {
+                stats.errors.increment();
+            }
+        }
+
+        private TenantStats statsFor(String tenant) {
+            if (tenants.size() >= maxTenants) {
+                return tenants.computeIfAbsent(OVERFLOW_TENANT, k -> new TenantStats(significantDigits));
+            }
+            return tenants.computeIfAbsent(tenant, k -> new TenantStats(significantDigits));
+        }
+
+        Map<String, Object> snapshot(long previousIntervalMillis) {
+            List<Map.Entry<String, Map<String, Object>>> entries = new ArrayList<>(tenants.size());
+            tenants.forEach((tenant, stats) ->
+                entries.add(new AbstractMap.SimpleImmutableEntry<>(tenant, stats.snapshot(previousIntervalMillis))));
+            entries.sort((a, b) -> Long.compare((Long) b.getValue().get("requests"), (Long) a.getValue().get("requests")));
+
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            for (Map.Entry<String, Map<String, Object>> entry : entries) {
+                snapshot.put(entry.getKey(), entry.getValue());
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * One tenant: a Recorder and error counter for writers, and merged
+     * histograms for readers (guarded by this, never taken by writers)
+     */
+    private static final class TenantStats {
+
+        private final Recorder recorder;
+        private final LongAdder errors = new LongAdder();
+
+        private final Histogram total;
+        private Histogram current;
+        private Histogram previous;
+        private Histogram interval;
+        private long errorsAtRoll;
+        private long previousErrors;
+
+        TenantStats(int significantDigits) {
+            recorder = new Recorder(significantDigits);
+            total = new PackedHistogram(significantDigits);
+            current = new PackedHistogram(significantDigits);
+            previous = new PackedHistogram(significantDigits);
+        }
+
+        /**
+         * Move what was recorded since the last pull into the reader's histograms
+         */
+        private void pull() {
+            interval = recorder.getIntervalHistogram(interval);
+            total.add(interval);
+            current.add(interval);
+        }
+
+        synchronized void roll() {
+            pull();
+            Histogram closed = current;
+            current = previous;
+            current.reset();
+            previous = closed;
+            long errorCount = errors.sum();
+            previousErrors = errorCount - errorsAtRoll;
+            errorsAtRoll = errorCount;
+        }
+
+        synchronized Map<String, Object> snapshot(long previousIntervalMillis) {
+            pull();
+            Map<String, Object> snapshot = summary(total, errors.sum());
+            Map<String, Object> lastInterval = summary(previous, previousErrors);
+            lastInterval.put("perSecond", previousIntervalMillis > 0
+                ? round(previous.getTotalCount() * 1000.0 / previousIntervalMillis) : 0.0);
+            snapshot.put("lastInterval", lastInterval);
+            return snapshot;
+        }
+
+        private static Map<String, Object> summary(Histogram histogram, long errorCount) {
+            long requests = histogram.getTotalCount();
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("p50", millis(histogram.getValueAtPercentile(50)));
+            latency.put("p90", millis(histogram.getValueAtPercentile(90)));
+            latency.put("p99", millis(histogram.getValueAtPercentile(99)));
+            latency.put("p999", millis(histogram.getValueAtPercentile(99.9)));
+            latency.put("max", millis(histogram.getMaxValue()));
+            latency.put("mean", requests > 0 ? round(histogram.getMean() / 1000.0) : 0.0);
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", requests);
+            summary.put("errors", errorCount);
+            summary.put("errorRate", requests > 0 ? round(Math.min(errorCount, requests) / (double) requests) : 0.0);
+            summary.put("latencyMs", latency);
+            return summary;
+        }
+
+        private static double millis(long micros) {
+            return round(micros / 1000.0);
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 1000) / 1000.0;
+        }
+    }
+}
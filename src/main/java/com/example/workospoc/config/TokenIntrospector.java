@@ -0,0 +1,223 @@
+package com.example.workospoc.config;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * RFC 7662-style token introspection for internal services
+ *
+ * Tokens are verified with JwtUtil's shared parser. Batches above
+ * introspection.parallel-threshold are split into one chunk per thread of a
+ * small dedicated pool (the caller runs a chunk itself if the pool is busy).
+ * Active results are cached until the token's exp, bounded by
+ * introspection.cache.max-entries; revocation is checked on every lookup so
+ * a logout takes effect immediately.
+ */
+@Component
+public class TokenIntrospector {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenIntrospector.class);
+
+    private static final Map<String, Object> INACTIVE = Collections.singletonMap("active", false);
+
+    private static final String[] CLAIMS = {"role", "corpId", "source", "connectionId", "organizationId"};
+
+    @Value("${introspection.threads:0}")
+    private int threads;
+
+    @Value("${introspection.parallel-threshold:8}")
+    private int parallelThreshold;
+
+    @Value("${introspection.cache.max-entries:10000}")
+    private int maxCacheEntries;
+
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationRegistry revocationRegistry;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, CachedResult> cache = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+    private int poolSize;
+    private Counter activeCounter;
+    private Counter inactiveCounter;
+    private Counter cacheHitCounter;
+
+    public TokenIntrospector(JwtUtil jwtUtil, TokenRevocationRegistry revocationRegistry, MeterRegistry meterRegistry) {
+        this.jwtUtil = jwtUtil;
+        this.revocationRegistry = revocationRegistry;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(poolSize * 4),
+            runnable -> {
+                Thread thread = new Thread(runnable, "introspect-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy());
+
+        activeCounter = resultCounter("active");
+        inactiveCounter = resultCounter("inactive");
+        cacheHitCounter = Counter.builder("auth.introspect.cache.hits")
+            .description("Introspected tokens answered from the result cache")
+            .register(meterRegistry);
+        Gauge.builder("auth.introspect.cache.size", cache, Map::size)
+            .description("Cached introspection results")
+            .register(meterRegistry);
+    }
+
+    private Counter resultCounter(String result) {
+        return Counter.builder("auth.introspect.tokens")
+            .description("Introspected tokens by result")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Introspect one token
+     *
+     * @return {"active": false} or {"active": true, "sub": ..., "exp": ..., ...}
+     */
+    public Map<String, Object> introspect(String token) {
+        Map<String, Object> result = lookup(token);
+        (Boolean.TRUE.equals(result.get("active")) ? activeCounter : inactiveCounter).increment();
+        return result;
+    }
+
+    /**
+     * Introspect a batch of tokens; results are in request order
+     */
+    public List<Map<String, Object>> introspect(List<String> tokens) {
+        int size = tokens.size();
+        if (size < parallelThreshold || poolSize < 2) {
+            List<Map<String, Object>> results = new ArrayList<>(size);
+            for (String token : tokens) {
+                results.add(introspect(token));
+            }
+            return results;
+        }
+
+        // Pre-filled, so each chunk sets its own indices
+        List<Map<String, Object>> results = new ArrayList<>(Collections.nCopies(size, null));
+        int chunk = (size + poolSize - 1) / poolSize;
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int start = chunk; start < size; start += chunk) {
+            int from = start;
+            int to = Math.min(size, start + chunk);
+            futures.add(CompletableFuture.runAsync(() -> introspectRange(tokens, results, from, to), executor));
+        }
+        introspectRange(tokens, results, 0, Math.min(size, chunk));
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        return results;
+    }
+
+    private void introspectRange(List<String> tokens, List<Map<String, Object>> results, int from, int to) {
+        for (int i = from; i < to; i++) {
+            results.set(i, introspect(tokens.get(i)));
+        }
+    }
+
+    private Map<String, Object> lookup(String token) {
+        if (token == null) {
+            return INACTIVE;
+        }
+        long now = System.currentTimeMillis();
+        CachedResult cached = cache.get(token);
+        if (cached != null && cached.expiresAt > now) {
+            cacheHitCounter.increment();
+            return revocationRegistry.isRevoked(cached.jti) ? INACTIVE : cached.response;
+        }
+
+        JwtValidationResult result = jwtUtil.validate(token);
+        if (!result.isValid()) {
+            return INACTIVE;
+        }
+        Claims claims = result.getClaims();
+        if (revocationRegistry.isRevoked(claims.getId())) {
+            return INACTIVE;
+        }
+
+        Map<String, Object> response = toResponse(claims);
+        if (claims.getExpiration() != null) {
+            cache(token, new CachedResult(response, claims.getId(), claims.getExpiration().getTime()), now);
+        }
+        return response;
+    }
+
+    private void cache(String token, CachedResult result, long now) {
+        if (cache.size() >= maxCacheEntries) {
+            cache.values().removeIf(entry -> entry.expiresAt <= now);
+            if (cache.size() >= maxCacheEntries) {
+                return;
+            }
+        }
+        cache.put(token, result);
+    }
+
+    private static Map<String, Object> toResponse(Claims claims) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("active", true);
+        response.put("token_type", "Bearer");
+        response.put("sub", claims.getSubject());
+        for (String name : CLAIMS) {
+            Object value = claims.get(name);
+            if (value != null) {
+                response.put(name, value);
+            }
+        }
+        if (claims.getIssuedAt() != null) {
+            response.put("iat", claims.getIssuedAt().getTime() / 1000);
+        }
+        if (claims.getExpiration() != null) {
+            response.put("exp", claims.getExpiration().getTime() / 1000);
+        }
+        if (claims.getId() != null) {
+            response.put("jti", claims.getId());
+        }
+        return Collections.unmodifiableMap(response);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        logger.debug("Introspection executor stopped, {} cached results dropped", cache.size());
+    }
+
+    private static final class CachedResult {
+        private final Map<String, Object> response;
+        private final String jti;
+        private final long expiresAt;
+
+        private CachedResult(Map<String, Object> response, String jti, long expiresAt) {
+            this.response = response;
+            this.jti = jti;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.workospoc.config;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.logout.LogoutHandler;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Revokes the bearer token presented on logout (or replaced by a renewal)
+ * so it cannot be replayed for the rest of its lifetime
+ */
+@Component
+public class TokenRevocationLogoutHandler implements LogoutHandler {
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private TokenRevocationRegistry revocationRegistry;
+
+    @Override
+    public void logout(HttpServletRequest request, HttpServletResponse response, Authentication authentication) {
+        revoke(request.getHeader("Authorization"));
+    }
+
+    /**
+     * Revoke the token in an Authorization header value; no-op for anything but a bearer token
+     */
+    public void revoke(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return;
+        }
+
+        String token = authHeader.substring(7);
+        revoke(token, jwtUtil.getClaimsFromToken(token));
+    }
+
+    /**
+     * Revoke a token whose claims are already verified, e.g. the one a renewal replaced
+     */
+    public void revoke(String token, Claims claims) {
+        if (claims != null && claims.getId() != null && claims.getExpiration() != null) {
+            revocationRegistry.revoke(claims.getId(), claims.getExpiration().getTime());
+        }
+        jwtUtil.discard(token);
+    }
+}
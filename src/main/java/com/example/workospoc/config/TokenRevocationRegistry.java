@@ -0,0 +1,180 @@
+package com.example.workospoc.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Registry of revoked JWT IDs (jti claim)
+ *
+ * The hot path (isRevoked) is answered by an in-memory Bloom filter; the exact
+ * concurrent set is only consulted when the filter reports a possible hit.
+ * Entries expire at the token's own exp, and every revocation is appended to a
+ * local AppendOnlyLog so revocations survive restarts.
+ */
+@Component
+public class TokenRevocationRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationRegistry.class);
+
+    @Value("${jwt.revocation.file:./data/revoked-tokens.log}")
+    private String revocationFile;
+
+    @Value("${jwt.revocation.expected-entries:100000}")
+    private int expectedEntries;
+
+    @Value("${jwt.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    /**
+     * Exact set of revoked jti -> expiration (epoch millis)
+     */
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter bloomFilter;
+
+    // Keeps the exact set and the Bloom filter in step (not a monitor: logout may run on a virtual thread)
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private AppendOnlyLog log;
+
+    @PostConstruct
+    public void init() {
+        bloomFilter = new BloomFilter(expectedEntries, falsePositiveRate);
+        log = new AppendOnlyLog(revocationFile, null);
+        long now = System.currentTimeMillis();
+
+        int skipped = log.load(line -> {
+            int tab = line.indexOf('\t');
+            if (tab <= 0) {
+                return false;
+            }
+            try {
+                long expiresAt = Long.parseLong(line.substring(tab + 1).trim());
+                if (expiresAt > now) {
+                    String jti = line.substring(0, tab);
+                    revokedTokens.put(jti, expiresAt);
+                    bloomFilter.put(jti);
+                }
+                return true;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        });
+
+        try {
+            compact();
+        } catch (IOException e) {
+            logger.warn("Could not open token revocation file {}: {}", log.getPath(), e.getMessage());
+        }
+        logger.info("Token revocation registry loaded {} active entries from {} ({} malformed lines skipped)",
+                revokedTokens.size(), log.getPath(), skipped);
+    }
+
+    /**
+     * Revoke a token until its expiration
+     *
+     * @param jti       token ID from the jti claim
+     * @param expiresAt token expiration in epoch millis
+     */
+    public void revoke(String jti, long expiresAt) {
+        lock.lock();
+        try {
+            if (jti == null || jti.isEmpty() || expiresAt <= System.currentTimeMillis()) {
+                return;
+            }
+            if (revokedTokens.put(jti, expiresAt) != null) {
+                return;
+            }
+            bloomFilter.put(jti);
+
+            try {
+                log.append(jti + "\t" + expiresAt);
+            } catch (IOException e) {
+                logger.warn("Could not persist revocation of token {}: {}", jti, e.getMessage());
+            }
+            logger.info("Revoked token {} (expires at {})", jti, expiresAt);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Check whether a token has been revoked
+     *
+     * @param jti token ID from the jti claim (tokens without one are never revoked)
+     * @return true if the token was revoked and has not yet expired
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null || !bloomFilter.mightContain(jti)) {
+            return false;
+        }
+        Long expiresAt = revokedTokens.get(jti);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    public int size() {
+        return revokedTokens.size();
+    }
+
+    /**
+     * Drop expired entries, rebuild the Bloom filter and compact the file
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:300000}")
+    public void purgeExpired() {
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            int removed = 0;
+            for (Iterator<Map.Entry<String, Long>> it = revokedTokens.entrySet().iterator(); it.hasNext(); ) {
+                if (it.next().getValue() <= now) {
+                    it.remove();
+                    removed++;
+                }
+            }
+            if (removed == 0) {
+                return;
+            }
+
+            BloomFilter rebuilt = new BloomFilter(expectedEntries, falsePositiveRate);
+            revokedTokens.keySet().forEach(rebuilt::put);
+            bloomFilter = rebuilt;
+
+            try {
+                compact();
+            } catch (IOException e) {
+                logger.warn("Could not compact token revocation file {}: {}", revocationFile, e.getMessage());
+            }
+            logger.debug("Purged {} expired revocations, {} remaining", removed, revokedTokens.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rewrite the file with only live entries and reopen it for appending
+     */
+    private void compact() throws IOException {
+        log.compact(revokedTokens.entrySet().stream()
+                .map(entry -> entry.getKey() + "\t" + entry.getValue())
+                .collect(Collectors.toList()));
+    }
+
+    @PreDestroy
+    public void closeAppender() {
+        if (log != null) {
+            log.close();
+        }
+    }
+}
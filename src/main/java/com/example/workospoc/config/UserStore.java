@@ -0,0 +1,153 @@
+package com.example.workospoc.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Embedded (H2) store for local-login users
+ *
+ * Lookups go through the app_user primary key index. Bulk imports stream the
+ * source line by line and write in fixed-size JDBC batches, so importing
+ * millions of users never holds more than one batch on the heap.
+ */
+@Repository
+public class UserStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserStore.class);
+
+    private static final String FIND_BY_USERNAME =
+        "SELECT username, password_hash, corp_id, role FROM app_user WHERE username = ?";
+
+    private static final String UPSERT =
+        "MERGE INTO app_user (username, password_hash, corp_id, role) KEY (username) VALUES (?, ?, ?, ?)";
+
+    private static final RowMapper<UserPrincipal> USER_ROW_MAPPER = (rs, rowNum) -> new UserPrincipal(
+        rs.getString("username"),
+        rs.getString("password_hash"),
+        rs.getString("corp_id"),
+        rs.getString("role"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${users.import.file:}")
+    private String importFile;
+
+    @Value("${users.import.batch-size:1000}")
+    private int batchSize;
+
+    public UserStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Find a user by username
+     *
+     * @return the user, or null if no such user exists
+     */
+    public UserPrincipal findByUsername(String username) {
+        List<UserPrincipal> users = jdbcTemplate.query(FIND_BY_USERNAME, USER_ROW_MAPPER, username);
+        return users.isEmpty() ? null : users.get(0);
+    }
+
+    public void save(String username, String passwordHash, String corpId, String role) {
+        jdbcTemplate.update(UPSERT, username, passwordHash, corpId, role);
+    }
+
+    public void updatePassword(String username, String passwordHash) {
+        jdbcTemplate.update("UPDATE app_user SET password_hash = ? WHERE username = ?", passwordHash, username);
+    }
+
+    public long count() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM app_user", Long.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Stream users into the store from CSV
+     *
+     * Expected line format: username,passwordHash,corpId,role
+     * Password hashes must already be encoded (e.g. BCrypt). Blank lines and
+     * lines starting with '#' are ignored; existing users are overwritten.
+     *
+     * @return number of users imported
+     */
+    public long importCsv(Reader source) throws IOException {
+        BufferedReader reader = source instanceof BufferedReader ? (BufferedReader) source : new BufferedReader(source);
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        long imported = 0;
+        long skipped = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(",", -1);
+            if (fields.length != 4 || fields[0].trim().isEmpty() || fields[1].trim().isEmpty()) {
+                skipped++;
+                continue;
+            }
+            String corpId = fields[2].trim();
+            String role = fields[3].trim();
+            batch.add(new Object[] {
+                fields[0].trim(), fields[1].trim(), corpId.isEmpty() ? null : corpId, role.isEmpty() ? "org_user" : role
+            });
+
+            if (batch.size() >= batchSize) {
+                jdbcTemplate.batchUpdate(UPSERT, batch);
+                imported += batch.size();
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT, batch);
+            imported += batch.size();
+        }
+
+        if (skipped > 0) {
+            logger.warn("Skipped {} malformed user import lines", skipped);
+        }
+        return imported;
+    }
+
+    /**
+     * Import users from users.import.file once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void importConfiguredFile() {
+        if (importFile == null || importFile.isEmpty()) {
+            return;
+        }
+        Path path = Paths.get(importFile);
+        if (!Files.exists(path)) {
+            logger.warn("User import file not found: {}", path);
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            long imported = importCsv(reader);
+            logger.info("Imported {} users from {} in {} ms (store now holds {} users)",
+                imported, path, System.currentTimeMillis() - start, count());
+        } catch (IOException e) {
+            logger.error("User import from {} failed: {}", path, e.getMessage());
+        }
+    }
+}
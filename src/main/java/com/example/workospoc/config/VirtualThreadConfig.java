@@ -0,0 +1,135 @@
+package com.example.workospoc.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opt-in virtual-thread execution (virtual-threads.enabled)
+ *
+ * The SSO callback spends almost all of its time waiting on WorkOS and the
+ * corp-mapping service, so with platform threads its concurrency is capped by
+ * Tomcat's pool. When enabled on a JVM with virtual threads (Java 21+),
+ * Tomcat runs each request on its own virtual thread and the callback
+ * workers are virtual as well. The build targets Java 8, so virtual threads
+ * are reached by reflection; on older JVMs the switch is logged and ignored.
+ */
+@Configuration
+public class VirtualThreadConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    private static final boolean SUPPORTED = virtualThreadFactory("virtual-probe-") != null;
+
+    // Thread.isVirtual(), or null before Java 21
+    private static final MethodHandle IS_VIRTUAL = isVirtualHandle();
+
+    @Value("${virtual-threads.enabled:false}")
+    private boolean requested;
+
+    /**
+     * True when virtual threads were requested and this JVM provides them
+     */
+    public boolean isActive() {
+        return requested && SUPPORTED;
+    }
+
+    /**
+     * Factory for threads that mostly wait on I/O: virtual threads when
+     * active, daemon platform threads otherwise
+     */
+    public ThreadFactory threadFactory(String namePrefix) {
+        if (isActive()) {
+            return virtualThreadFactory(namePrefix);
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Run Tomcat request processing on one virtual thread per request
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnProperty(name = "virtual-threads.enabled", havingValue = "true")
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadRequestExecutor() {
+        if (!SUPPORTED) {
+            logger.warn("Virtual threads requested but not available on Java {}; using Tomcat's platform thread pool",
+                System.getProperty("java.specification.version"));
+            return protocolHandler -> { };
+        }
+        ExecutorService executor = threadPerTaskExecutor(virtualThreadFactory("http-virtual-"));
+        logger.info("Tomcat request handling runs on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    /**
+     * Whether the current thread is virtual (always false on older JVMs)
+     */
+    static boolean isCurrentThreadVirtual() {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (boolean) IS_VIRTUAL.invokeExact(Thread.currentThread());
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    private static MethodHandle isVirtualHandle() {
+        if (!SUPPORTED) {
+            return null;
+        }
+        try {
+            return MethodHandles.publicLookup().findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Thread.ofVirtual().name(prefix, 1).factory(), or null if virtual
+     * threads are missing or still a preview feature on this JVM
+     */
+    static ThreadFactory virtualThreadFactory(String namePrefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 1L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Executors.newThreadPerTaskExecutor(factory), only called once virtual
+     * threads are known to be available
+     */
+    static ExecutorService threadPerTaskExecutor(ThreadFactory threadFactory) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                .invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create a thread-per-task executor", e);
+        }
+    }
+}
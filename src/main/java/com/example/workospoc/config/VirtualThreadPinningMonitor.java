@@ -0,0 +1,136 @@
+package com.example.workospoc.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread
+ *
+ * A virtual thread that blocks inside a synchronized block or a native frame
+ * keeps its carrier busy, so a few pinning sites on the callback path can
+ * bring back the platform-thread limit. While virtual threads are active this
+ * streams the JFR jdk.VirtualThreadPinned event (recorded when pinning lasts
+ * longer than threshold-ms), times every occurrence in
+ * app.virtual-threads.pinned and logs the stack of each new pinning site once.
+ * JFR is reached by reflection because the build targets Java 8.
+ */
+@Component
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final int LOGGED_FRAMES = 12;
+
+    @Value("${virtual-threads.pinning.enabled:true}")
+    private boolean enabled;
+
+    @Value("${virtual-threads.pinning.threshold-ms:20}")
+    private long thresholdMs;
+
+    @Value("${virtual-threads.pinning.max-sites:100}")
+    private int maxSites;
+
+    private final VirtualThreadConfig virtualThreadConfig;
+    private final MeterRegistry meterRegistry;
+
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+
+    private Timer pinnedTimer;
+    private AutoCloseable recordingStream;
+
+    public VirtualThreadPinningMonitor(VirtualThreadConfig virtualThreadConfig, MeterRegistry meterRegistry) {
+        this.virtualThreadConfig = virtualThreadConfig;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled || !virtualThreadConfig.isActive()) {
+            return;
+        }
+        pinnedTimer = Timer.builder("app.virtual-threads.pinned")
+            .description("Virtual threads pinned to their carrier longer than the JFR threshold")
+            .register(meterRegistry);
+        try {
+            Class<?> streamType = Class.forName("jdk.jfr.consumer.RecordingStream");
+            Object stream = streamType.getConstructor().newInstance();
+            Object settings = streamType.getMethod("enable", String.class).invoke(stream, PINNED_EVENT);
+            Class.forName("jdk.jfr.EventSettings").getMethod("withThreshold", Duration.class)
+                .invoke(settings, Duration.ofMillis(thresholdMs));
+            Consumer<Object> handler = this::onPinned;
+            streamType.getMethod("onEvent", String.class, Consumer.class).invoke(stream, PINNED_EVENT, handler);
+            streamType.getMethod("startAsync").invoke(stream);
+            recordingStream = (AutoCloseable) stream;
+            logger.info("Virtual thread pinning monitor started (threshold {} ms)", thresholdMs);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            logger.warn("Virtual thread pinning monitor unavailable ({}); use -Djdk.tracePinnedThreads=short instead",
+                e.toString());
+        }
+    }
+
+    private void onPinned(Object event) {
+        try {
+            Duration duration = (Duration) invoke(event, "getDuration");
+            pinnedTimer.record(duration.toNanos(), TimeUnit.NANOSECONDS);
+
+            String stack = stackOf(event);
+            String site = stack.isEmpty() ? "<unknown>" : stack.substring(0, stack.indexOf('\n') + 1);
+            if (reportedSites.size() < maxSites && reportedSites.add(site)) {
+                logger.warn("Virtual thread pinned for {} ms at:\n{}", duration.toMillis(), stack);
+            } else if (logger.isDebugEnabled()) {
+                logger.debug("Virtual thread pinned for {} ms at {}", duration.toMillis(), site.trim());
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.debug("Could not read pinning event: {}", e.toString());
+        }
+    }
+
+    /**
+     * Top frames of the event's stack, one "class.method:line" per line
+     */
+    private static String stackOf(Object event) throws ReflectiveOperationException {
+        Object stackTrace = invoke(event, "getStackTrace");
+        if (stackTrace == null) {
+            return "";
+        }
+        StringBuilder stack = new StringBuilder();
+        List<?> frames = (List<?>) invoke(stackTrace, "getFrames");
+        for (Object frame : frames.subList(0, Math.min(frames.size(), LOGGED_FRAMES))) {
+            Object method = invoke(frame, "getMethod");
+            Object type = invoke(method, "getType");
+            stack.append("    ").append(invoke(type, "getName")).append('.').append(invoke(method, "getName"))
+                .append(':').append(invoke(frame, "getLineNumber")).append('\n');
+        }
+        return stack.toString();
+    }
+
+    private static Object invoke(Object target, String method) throws ReflectiveOperationException {
+        return target.getClass().getMethod(method).invoke(target);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recordingStream != null) {
+            try {
+                recordingStream.close();
+            } catch (Exception e) {
+                logger.debug("Error closing pinning monitor: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.workospoc.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Warm-up stage that runs after the web server starts but before the
+ * application reports ready
+ *
+ * Spring Boot only publishes ReadinessState.ACCEPTING_TRAFFIC after all
+ * ApplicationRunners complete, so /actuator/health/readiness reports OUT_OF_SERVICE while
+ * this runs. It exercises the JWT sign/verify path, Jackson, BCrypt and the
+ * security filter chain (over loopback HTTP), and pre-opens the corp-mapping
+ * connection, so the first real logins do not pay for cold code and
+ * connection setup.
+ */
+@Component
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmupRunner.class);
+
+    /**
+     * Marks loopback warm-up requests so startup timing and tenant statistics
+     * ignore them; only the value of the current run counts (see isWarmupRequest)
+     */
+    public static final String WARMUP_HEADER = "X-Warmup";
+
+    // Random value for the header, set only while the loopback requests run
+    private static volatile byte[] warmupKey;
+
+    @Value("${warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${warmup.jwt-iterations:2000}")
+    private int jwtIterations;
+
+    @Value("${warmup.bcrypt-iterations:3}")
+    private int bcryptIterations;
+
+    @Value("${warmup.http-iterations:50}")
+    private int httpIterations;
+
+    private final ApplicationContext applicationContext;
+    private final Environment environment;
+    private final JwtUtil jwtUtil;
+    private final PasswordEncoder passwordEncoder;
+    private final ObjectMapper objectMapper;
+    private final RestTemplate restTemplate;
+    private final WorkOSConfig workOSConfig;
+    private final MeterRegistry meterRegistry;
+
+    private volatile long warmupMs = -1;
+
+    public WarmupRunner(ApplicationContext applicationContext, Environment environment, JwtUtil jwtUtil,
+                        PasswordEncoder passwordEncoder, ObjectMapper objectMapper, RestTemplate restTemplate,
+                        WorkOSConfig workOSConfig, MeterRegistry meterRegistry) {
+        this.applicationContext = applicationContext;
+        this.environment = environment;
+        this.jwtUtil = jwtUtil;
+        this.passwordEncoder = passwordEncoder;
+        this.objectMapper = objectMapper;
+        this.restTemplate = restTemplate;
+        this.workOSConfig = workOSConfig;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            logger.info("Warm-up disabled (warmup.enabled=false)");
+            return;
+        }
+        AvailabilityChangeEvent.publish(applicationContext, ReadinessState.REFUSING_TRAFFIC);
+        logger.info("🔥 Warm-up started, readiness held until it completes");
+
+        long start = System.currentTimeMillis();
+        warmJwt();
+        warmJackson();
+        warmBcrypt();
+        // A WorkOS token builds its principal from the claims, so no user needs to exist
+        String token = jwtUtil.generateTokenForWorkOSUser("warmup", "org_user", "warmup_corp", null);
+        warmFilterChain(token);
+        jwtUtil.discard(token);
+        preOpenCorpMappingConnection();
+        warmupMs = System.currentTimeMillis() - start;
+
+        Gauge.builder("app.warmup.duration.ms", this, r -> r.warmupMs).register(meterRegistry);
+        logger.info("🔥 Warm-up completed in {} ms", warmupMs);
+    }
+
+    /**
+     * Whether a request carries the warm-up header value of the run in
+     * progress; a client sending the header on its own is not exempt
+     */
+    public static boolean isWarmupRequest(String headerValue) {
+        byte[] key = warmupKey;
+        return key != null && headerValue != null
+            && MessageDigest.isEqual(key, headerValue.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void warmJwt() {
+        UserPrincipal principal = new UserPrincipal("warmup", "", "warmup_corp", "org_user");
+        Authentication authentication =
+            new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+        String token = null;
+        for (int i = 0; i < jwtIterations; i++) {
+            jwtUtil.discard(token);
+            token = jwtUtil.generateJwtToken(authentication, principal.getCorpId(), principal.getRole());
+            jwtUtil.validateJwtToken(token);
+            jwtUtil.getClaimsFromToken(token);
+        }
+        jwtUtil.discard(token);
+    }
+
+    private void warmJackson() {
+        Map<String, Object> sample = new HashMap<>();
+        sample.put("username", "warmup");
+        sample.put("corpId", "warmup_corp");
+        sample.put("role", "org_user");
+        sample.put("authenticated", true);
+        try {
+            for (int i = 0; i < 1000; i++) {
+                JsonNode node = objectMapper.readTree(objectMapper.writeValueAsBytes(sample));
+                node.get("role");
+            }
+        } catch (Exception e) {
+            logger.debug("Jackson warm-up failed: {}", e.getMessage());
+        }
+    }
+
+    private void warmBcrypt() {
+        String hash = passwordEncoder.encode("warmup");
+        for (int i = 0; i < bcryptIterations; i++) {
+            passwordEncoder.matches("warmup", hash);
+        }
+    }
+
+    /**
+     * Send requests through the full servlet + Spring Security filter chain
+     */
+    private void warmFilterChain(String token) {
+        String port = environment.getProperty("local.server.port");
+        if (port == null || token == null) {
+            return;
+        }
+        String baseUrl = "http://localhost:" + port;
+        byte[] key = new byte[24];
+        new SecureRandom().nextBytes(key);
+        String keyValue = Base64.getUrlEncoder().withoutPadding().encodeToString(key);
+        HttpHeaders authorized = new HttpHeaders();
+        authorized.set(WARMUP_HEADER, keyValue);
+        authorized.setBearerAuth(token);
+        HttpHeaders garbage = new HttpHeaders();
+        garbage.set(WARMUP_HEADER, keyValue);
+        garbage.setBearerAuth("warmup.not.a-token");
+
+        int failures = 0;
+        String firstFailure = null;
+        warmupKey = keyValue.getBytes(StandardCharsets.UTF_8);
+        try {
+            for (int i = 0; i < httpIterations; i++) {
+                String[] results = {
+                    exchange(baseUrl + "/api/me", authorized, HttpStatus.OK, HttpStatus.NOT_MODIFIED),
+                    exchange(baseUrl + "/api/demo/support", authorized, HttpStatus.OK, HttpStatus.NOT_MODIFIED),
+                    exchange(baseUrl + "/api/demo/admin", authorized, HttpStatus.FORBIDDEN),
+                    exchange(baseUrl + "/api/me", garbage, HttpStatus.UNAUTHORIZED)
+                };
+                for (String result : results) {
+                    if (result != null) {
+                        failures++;
+                        firstFailure = firstFailure != null ? firstFailure : result;
+                    }
+                }
+            }
+        } finally {
+            warmupKey = null;
+        }
+        if (failures > 0) {
+            logger.warn("{} of {} warm-up requests failed, first: {}", failures, httpIterations * 4, firstFailure);
+        }
+    }
+
+    /**
+     * GET the URL; null if it answered with one of the expected statuses,
+     * otherwise what went wrong
+     */
+    private String exchange(String url, HttpHeaders headers, HttpStatus... expected) {
+        int status;
+        try {
+            status = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class)
+                .getStatusCodeValue();
+        } catch (HttpStatusCodeException e) {
+            status = e.getRawStatusCode();
+        } catch (Exception e) {
+            return url + " could not be sent: " + e.getMessage();
+        }
+        for (HttpStatus ok : expected) {
+            if (ok.value() == status) {
+                return null;
+            }
+        }
+        return url + " answered " + status;
+    }
+
+    /**
+     * Open (and keep alive) the HTTP connection to the corp-mapping service
+     */
+    private void preOpenCorpMappingConnection() {
+        String baseUrl = workOSConfig.getCorpMappingApiBaseUrl();
+        if (baseUrl == null || baseUrl.isEmpty()) {
+            return;
+        }
+        try {
+            restTemplate.headForHeaders(baseUrl);
+            logger.info("Pre-opened connection to corp-mapping service at {}", baseUrl);
+        } catch (HttpStatusCodeException e) {
+            logger.info("Pre-opened connection to corp-mapping service at {} ({})", baseUrl, e.getStatusCode());
+        } catch (Exception e) {
+            logger.warn("Could not pre-open connection to corp-mapping service at {}: {}", baseUrl, e.getMessage());
+        }
+    }
+}
@@ -6,7 +6,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
 import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertySource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -21,6 +23,9 @@ public class WorkOSConfig {
     
     // Constants
     private static final String REDIRECT_URI = "http://localhost:8081/auth/workos/callback";
+    private static final String CORP_ID_MAPPING_PREFIX = "workos.connection-mapping.";
+    private static final String LOGO_MAPPING_PREFIX = "workos.connection-logos.";
+    private static final String NAME_MAPPING_PREFIX = "workos.connection-names.";
 
     @Value("${workos.environment:staging}")
     private String environment;
@@ -64,218 +69,68 @@ public class WorkOSConfig {
     private Map<String, String> connectionToNameMapping;
 
     /**
-     * Initialize and load connection mapping from YAML after bean construction
+     * Load the connection mappings (corpId, logo, IdP name) from configuration
+     *
+     * Spring Boot flattens the YAML maps into properties like
+     * workos.connection-mapping.conn_01...=CORP_PROD_001, so all three maps are
+     * collected in a single pass over the property sources.
      */
     @PostConstruct
-    public void initConnectionMapping() {
-        logger.info("=== Connection Mapping Initialization ===");
-        
-        connectionToCorpIdMapping = new HashMap<>();
-        
-        // Load connection mappings from environment properties
-        // Spring Boot converts YAML map to properties like: workos.connection-mapping.conn_01...=CORP_PROD_001
-        String prefix = "workos.connection-mapping.";
-        
-        // Get all property keys that start with the prefix
-        // We'll check for common connection IDs or iterate through all properties
-        // Since we know the connection IDs, let's try loading them directly
-        
-        // Try to load known connection IDs from configuration
-        String[] knownConnections = {
-            "conn_01K8R9BKTPJWV123532JYJ5T6H",  // Okta
-            "conn_01K953TWV92J9M1F1J0CR85QB6"    // Azure Entra ID
-        };
-        
-        for (String connId : knownConnections) {
-            String propertyKey = prefix + connId;
-            String corpId = springEnvironment.getProperty(propertyKey);
-            if (corpId != null && !corpId.isEmpty()) {
-                connectionToCorpIdMapping.put(connId, corpId);
-                logger.info("  Loaded: {} -> {}", connId, corpId);
-            } else {
-                logger.warn("  Could not load property: {} (value was null or empty)", propertyKey);
-            }
-        }
-        
-        // Also try to discover any other connection mappings dynamically
-        // This is a fallback to catch any we might have missed
-        try {
-            // Get all property keys and filter for our prefix
-            // Note: This approach works but may not catch all nested properties
-            // A more robust approach would use @ConfigurationProperties, but this should work for POC
-            if (springEnvironment instanceof ConfigurableEnvironment) {
-                ConfigurableEnvironment configurableEnv = (ConfigurableEnvironment) springEnvironment;
-                for (org.springframework.core.env.PropertySource<?> ps : configurableEnv.getPropertySources()) {
-                    if (ps.getSource() instanceof Map) {
-                        @SuppressWarnings("unchecked")
-                        Map<String, Object> sourceMap = (Map<String, Object>) ps.getSource();
-                        for (String key : sourceMap.keySet()) {
-                            if (key.startsWith(prefix)) {
-                                String connId = key.substring(prefix.length());
-                                String corpId = springEnvironment.getProperty(key);
-                                if (corpId != null && !corpId.isEmpty() && !connectionToCorpIdMapping.containsKey(connId)) {
-                                    connectionToCorpIdMapping.put(connId, corpId);
-                                    logger.info("  Discovered: {} -> {}", connId, corpId);
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        } catch (Exception e) {
-            logger.debug("Could not discover additional connection mappings dynamically: {}", e.getMessage());
-        }
-        
-        if (!connectionToCorpIdMapping.isEmpty()) {
-            logger.info("✅ Connection mapping loaded successfully!");
-            logger.info("Map size: {}", connectionToCorpIdMapping.size());
-            logger.info("Map contents:");
-            connectionToCorpIdMapping.forEach((key, value) -> 
-                logger.info("  {} -> {}", key, value));
-        } else {
-            logger.error("❌ Connection mapping is EMPTY!");
-            logger.error("   Could not load any connection mappings from application.yml");
-            logger.error("   Check that workos.connection-mapping section exists in application.yml");
-            logger.error("   Expected format:");
-            logger.error("   workos:");
-            logger.error("     connection-mapping:");
-            logger.error("       conn_01K8R9BKTPJWV123532JYJ5T6H: CORP_PROD_001");
+    public void initConnectionMappings() {
+        Map<String, Map<String, String>> mappings = collectPrefixedProperties(
+            CORP_ID_MAPPING_PREFIX, LOGO_MAPPING_PREFIX, NAME_MAPPING_PREFIX);
+
+        connectionToCorpIdMapping = mappings.get(CORP_ID_MAPPING_PREFIX);
+        connectionToLogoMapping = mappings.get(LOGO_MAPPING_PREFIX);
+        connectionToNameMapping = mappings.get(NAME_MAPPING_PREFIX);
+
+        logger.info("Loaded connection mappings: {} corpId, {} logo, {} IdP name",
+            connectionToCorpIdMapping.size(), connectionToLogoMapping.size(), connectionToNameMapping.size());
+        logger.debug("CorpId mappings: {}", connectionToCorpIdMapping);
+
+        if (connectionToCorpIdMapping.isEmpty()) {
+            logger.error("❌ Connection mapping is EMPTY! Expected entries under workos.connection-mapping in application.yml, e.g.");
+            logger.error("   workos.connection-mapping.conn_01K8R9BKTPJWV123532JYJ5T6H: CORP_PROD_001");
         }
-        logger.info("========================================");
     }
 
     /**
-     * Initialize and load connection logo mapping from YAML after bean construction
+     * Collect all properties under the given prefixes in one walk over the
+     * enumerable property sources
+     *
+     * @return prefix -> (key without prefix -> resolved value); every prefix is present
      */
-    @PostConstruct
-    public void initLogoMapping() {
-        logger.info("=== Connection Logo Mapping Initialization ===");
-        
-        connectionToLogoMapping = new HashMap<>();
-        
-        // Load connection logo mappings from environment properties
-        String prefix = "workos.connection-logos.";
-        
-        // Known connection IDs
-        String[] knownConnections = {
-            "conn_01K8R9BKTPJWV123532JYJ5T6H",  // Okta
-            "conn_01K953TWV92J9M1F1J0CR85QB6"    // Azure Entra ID
-        };
-        
-        for (String connId : knownConnections) {
-            String propertyKey = prefix + connId;
-            String logo = springEnvironment.getProperty(propertyKey);
-            if (logo != null && !logo.isEmpty()) {
-                connectionToLogoMapping.put(connId, logo);
-                logger.info("  Loaded logo: {} -> {}", connId, logo);
-            } else {
-                logger.warn("  Could not load logo property: {} (value was null or empty)", propertyKey);
-            }
+    Map<String, Map<String, String>> collectPrefixedProperties(String... prefixes) {
+        Map<String, Map<String, String>> result = new HashMap<>();
+        for (String prefix : prefixes) {
+            result.put(prefix, new HashMap<>());
         }
-        
-        // Also try to discover any other logo mappings dynamically
-        try {
-            if (springEnvironment instanceof ConfigurableEnvironment) {
-                ConfigurableEnvironment configurableEnv = (ConfigurableEnvironment) springEnvironment;
-                for (org.springframework.core.env.PropertySource<?> ps : configurableEnv.getPropertySources()) {
-                    if (ps.getSource() instanceof Map) {
-                        @SuppressWarnings("unchecked")
-                        Map<String, Object> sourceMap = (Map<String, Object>) ps.getSource();
-                        for (String key : sourceMap.keySet()) {
-                            if (key.startsWith(prefix)) {
-                                String connId = key.substring(prefix.length());
-                                String logo = springEnvironment.getProperty(key);
-                                if (logo != null && !logo.isEmpty() && !connectionToLogoMapping.containsKey(connId)) {
-                                    connectionToLogoMapping.put(connId, logo);
-                                    logger.info("  Discovered logo: {} -> {}", connId, logo);
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        } catch (Exception e) {
-            logger.debug("Could not discover additional logo mappings dynamically: {}", e.getMessage());
-        }
-        
-        if (!connectionToLogoMapping.isEmpty()) {
-            logger.info("✅ Connection logo mapping loaded successfully!");
-            logger.info("Logo map size: {}", connectionToLogoMapping.size());
-            logger.info("Logo map contents:");
-            connectionToLogoMapping.forEach((key, value) -> 
-                logger.info("  {} -> {}", key, value));
-        } else {
-            logger.warn("⚠️ Connection logo mapping is EMPTY!");
-            logger.warn("   No logo mappings found in application.yml");
+        if (!(springEnvironment instanceof ConfigurableEnvironment)) {
+            return result;
         }
-        logger.info("========================================");
-    }
 
-    /**
-     * Initialize and load connection name mapping from YAML after bean construction
-     */
-    @PostConstruct
-    public void initNameMapping() {
-        logger.info("=== Connection Name Mapping Initialization ===");
-        
-        connectionToNameMapping = new HashMap<>();
-        
-        // Load connection name mappings from environment properties
-        String prefix = "workos.connection-names.";
-        
-        // Known connection IDs
-        String[] knownConnections = {
-            "conn_01K8R9BKTPJWV123532JYJ5T6H",  // Okta
-            "conn_01K953TWV92J9M1F1J0CR85QB6"    // Azure Entra ID
-        };
-        
-        for (String connId : knownConnections) {
-            String propertyKey = prefix + connId;
-            String name = springEnvironment.getProperty(propertyKey);
-            if (name != null && !name.isEmpty()) {
-                connectionToNameMapping.put(connId, name);
-                logger.info("  Loaded name: {} -> {}", connId, name);
-            } else {
-                logger.warn("  Could not load name property: {} (value was null or empty)", propertyKey);
+        for (PropertySource<?> ps : ((ConfigurableEnvironment) springEnvironment).getPropertySources()) {
+            if (!(ps instanceof EnumerablePropertySource)) {
+                continue;
             }
-        }
-        
-        // Also try to discover any other name mappings dynamically
-        try {
-            if (springEnvironment instanceof ConfigurableEnvironment) {
-                ConfigurableEnvironment configurableEnv = (ConfigurableEnvironment) springEnvironment;
-                for (org.springframework.core.env.PropertySource<?> ps : configurableEnv.getPropertySources()) {
-                    if (ps.getSource() instanceof Map) {
-                        @SuppressWarnings("unchecked")
-                        Map<String, Object> sourceMap = (Map<String, Object>) ps.getSource();
-                        for (String key : sourceMap.keySet()) {
-                            if (key.startsWith(prefix)) {
-                                String connId = key.substring(prefix.length());
-                                String name = springEnvironment.getProperty(key);
-                                if (name != null && !name.isEmpty() && !connectionToNameMapping.containsKey(connId)) {
-                                    connectionToNameMapping.put(connId, name);
-                                    logger.info("  Discovered name: {} -> {}", connId, name);
-                                }
+            for (String key : ((EnumerablePropertySource<?>) ps).getPropertyNames()) {
+                for (String prefix : prefixes) {
+                    if (key.startsWith(prefix)) {
+                        Map<String, String> target = result.get(prefix);
+                        String name = key.substring(prefix.length());
+                        if (!target.containsKey(name)) {
+                            // Resolve through the environment so precedence and placeholders apply
+                            String value = springEnvironment.getProperty(key);
+                            if (value != null && !value.isEmpty()) {
+                                target.put(name, value);
                             }
                         }
+                        break;
                     }
                 }
             }
-        } catch (Exception e) {
-            logger.debug("Could not discover additional name mappings dynamically: {}", e.getMessage());
         }
-        
-        if (!connectionToNameMapping.isEmpty()) {
-            logger.info("✅ Connection name mapping loaded successfully!");
-            logger.info("Name map size: {}", connectionToNameMapping.size());
-            logger.info("Name map contents:");
-            connectionToNameMapping.forEach((key, value) -> 
-                logger.info("  {} -> {}", key, value));
-        } else {
-            logger.warn("⚠️ Connection name mapping is EMPTY!");
-            logger.warn("   No name mappings found in application.yml");
-        }
-        logger.info("========================================");
+        return result;
     }
 
     // API endpoints
@@ -335,16 +190,29 @@ public class WorkOSConfig {
     @Value("${corp.mapping.api.key:}")
     private String corpMappingApiKey;
 
+    @Value("${corp.mapping.api.paths.user-corp-id:/api/user/corpId}")
+    private String corpMappingUserCorpIdPath;
+
+    @Value("${corp.mapping.api.paths.user-role:/api/user/role}")
+    private String corpMappingUserRolePath;
+
+    // Bulk read and change feed for CorpMappingSynchronizer; empty = not provided by the service
+    @Value("${corp.mapping.api.paths.mappings:}")
+    private String corpMappingMappingsPath;
+
+    @Value("${corp.mapping.api.paths.mapping-changes:}")
+    private String corpMappingChangesPath;
+
     @Bean
     public WorkOS workOS() {
-        logger.info("=== WorkOS Configuration Debug ===");
-        logger.info("Environment value from @Value: '{}'", environment);
-        logger.info("isStagingEnvironment(): {}", isStagingEnvironment());
-        logger.info("stagingBaseUrl: {}", stagingBaseUrl);
-        logger.info("productionBaseUrl: {}", productionBaseUrl);
-        logger.info("getCurrentBaseUrl(): {}", getCurrentBaseUrl());
-        logger.info("API key: {}", apiKey != null ? apiKey.substring(0, 10) + "..." : "null");
-        logger.info("=================================");
+        logger.debug("=== WorkOS Configuration Debug ===");
+        logger.debug("Environment value from @Value: '{}'", environment);
+        logger.debug("isStagingEnvironment(): {}", isStagingEnvironment());
+        logger.debug("stagingBaseUrl: {}", stagingBaseUrl);
+        logger.debug("productionBaseUrl: {}", productionBaseUrl);
+        logger.debug("getCurrentBaseUrl(): {}", getCurrentBaseUrl());
+        logger.debug("API key: {}", apiKey != null ? apiKey.substring(0, 10) + "..." : "null");
+        logger.debug("=================================");
         
         // Force staging environment for testing
         if (isStagingEnvironment()) {
@@ -367,7 +235,7 @@ public class WorkOSConfig {
     // Environment detection methods
     public boolean isStagingEnvironment() {
         boolean isStaging = "staging".equalsIgnoreCase(environment);
-        logger.info("isStagingEnvironment() - environment: '{}', isStaging: {}", environment, isStaging);
+        logger.debug("isStagingEnvironment() - environment: '{}', isStaging: {}", environment, isStaging);
         return isStaging;
     }
 
@@ -510,7 +378,7 @@ public class WorkOSConfig {
     public String getProductionBaseUrl() { return productionBaseUrl; }
     public String getCurrentBaseUrl() {
         String baseUrl = isStagingEnvironment() ? stagingBaseUrl : productionBaseUrl;
-        logger.info("getCurrentBaseUrl() - Environment: {}, isStaging: {}, baseUrl: {}", 
+        logger.debug("getCurrentBaseUrl() - Environment: {}, isStaging: {}, baseUrl: {}", 
                    environment, isStagingEnvironment(), baseUrl);
         return baseUrl;
     }
@@ -547,6 +415,22 @@ public class WorkOSConfig {
         return corpMappingApiKey;
     }
 
+    public String getCorpMappingUserCorpIdPath() {
+        return corpMappingUserCorpIdPath;
+    }
+
+    public String getCorpMappingUserRolePath() {
+        return corpMappingUserRolePath;
+    }
+
+    public String getCorpMappingMappingsPath() {
+        return corpMappingMappingsPath;
+    }
+
+    public String getCorpMappingChangesPath() {
+        return corpMappingChangesPath;
+    }
+
     /**
      * Generate the authorization URL - DEPRECATED
      * 
@@ -0,0 +1,256 @@
+package com.example.workospoc.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Client-side rate governor for outbound WorkOS API calls
+ *
+ * WorkOS enforces API rate limits, and during a login surge every node
+ * calling getProfileAndToken at once turns into 429s for users who would
+ * have succeeded a moment later. Calls made through execute() take a permit
+ * from a token bucket sized to this node's share of the quota; when none is
+ * free the caller waits for a reserved slot, up to max-wait-ms and with at
+ * most max-queued callers waiting, and is rejected beyond that. A 429 from
+ * WorkOS blocks the bucket for its Retry-After (default-retry-after-ms when
+ * the SDK does not expose the header), after which calls resume at the
+ * sustained rate without a burst.
+ */
+@Component
+public class WorkOSRateGovernor {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkOSRateGovernor.class);
+
+    private static final String BUCKET = "workos";
+
+    // At most 6 digits (over 11 days, and capped at a minute anyway) so parsing cannot overflow
+    private static final Pattern RETRY_AFTER = Pattern.compile("retry[- ]after\\D{0,5}(\\d{1,6})(?!\\d)", Pattern.CASE_INSENSITIVE);
+
+    // 429 as a standalone number, so IDs or durations containing 429 do not count
+    private static final Pattern STATUS_429 = Pattern.compile("(?<!\\d)429(?!\\d)");
+
+    @Value("${workos.api.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${workos.api.rate-limit.per-second:50}")
+    private double perSecond;
+
+    @Value("${workos.api.rate-limit.burst:20}")
+    private int burst;
+
+    @Value("${workos.api.rate-limit.max-wait-ms:2000}")
+    private long maxWaitMs;
+
+    @Value("${workos.api.rate-limit.max-queued:200}")
+    private int maxQueued;
+
+    @Value("${workos.api.rate-limit.default-retry-after-ms:1000}")
+    private long defaultRetryAfterMs;
+
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong pausedUntilNanos = new AtomicLong(System.nanoTime());
+    private final AtomicInteger pauses = new AtomicInteger();
+
+    private RateLimiter limiter;
+    private Counter queuedCounter;
+    private Counter rejectedCounter;
+    private Counter upstreamThrottledCounter;
+    private Timer queueWaitTimer;
+
+    public WorkOSRateGovernor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        limiter = new RateLimiter(perSecond, burst, 1);
+
+        Gauge.builder("workos.api.queue.depth", waiting, AtomicInteger::get)
+            .description("WorkOS API calls waiting for a rate-limit permit")
+            .register(meterRegistry);
+        queuedCounter = Counter.builder("workos.api.queued")
+            .description("WorkOS API calls that waited for a rate-limit permit")
+            .register(meterRegistry);
+        queueWaitTimer = Timer.builder("workos.api.queue.wait")
+            .description("Time WorkOS API calls waited for a rate-limit permit")
+            .register(meterRegistry);
+        rejectedCounter = throttledCounter("rejected");
+        upstreamThrottledCounter = throttledCounter("upstream_429");
+
+        logger.info("WorkOS API governor {}: {}/s, burst {}, max wait {} ms, max queued {}",
+            enabled ? "enabled" : "disabled", perSecond, burst, maxWaitMs, maxQueued);
+    }
+
+    private Counter throttledCounter(String reason) {
+        return Counter.builder("workos.api.throttled")
+            .description("WorkOS API calls rejected by the governor or answered with 429")
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Make a WorkOS API call once a permit is available
+     *
+     * @param operation name used in log messages, e.g. "getProfileAndToken"
+     * @throws RejectedException if no permit is available within max-wait-ms,
+     *                           or too many callers are already waiting
+     * @throws Exception         whatever the call itself threw
+     */
+    public <T> T execute(String operation, Callable<T> call) throws Exception {
+        if (!enabled) {
+            return call.call();
+        }
+        acquire(operation);
+        try {
+            return call.call();
+        } catch (Exception e) {
+            long retryAfterNanos = retryAfterNanos(e);
+            if (retryAfterNanos >= 0) {
+                upstreamThrottledCounter.increment();
+                pause(retryAfterNanos);
+                logger.warn("WorkOS {} rate limited, pausing WorkOS calls for {} ms",
+                    operation, TimeUnit.NANOSECONDS.toMillis(retryAfterNanos));
+            }
+            throw e;
+        }
+    }
+
+    private void acquire(String operation) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        // Claim a place before reserving, so concurrent callers cannot all pass the check
+        if (waiting.incrementAndGet() > maxQueued) {
+            waiting.decrementAndGet();
+            // The waiters already hold the next permits; do not reserve one we would give up
+            reject(operation, maxQueued + " calls already waiting");
+        }
+        boolean queued = false;
+        try {
+            for (;;) {
+                int pausesBefore = pauses.get();
+                long wait = limiter.reserve(BUCKET, Math.max(deadline - System.nanoTime(), 0));
+                if (wait == 0) {
+                    return;
+                }
+                if (wait < 0) {
+                    reject(operation, "no permit within " + maxWaitMs + " ms");
+                }
+                if (!queued) {
+                    queued = true;
+                    queuedCounter.increment();
+                }
+                TimeUnit.NANOSECONDS.sleep(wait);
+                // A 429 while we slept: our slot predates the pause, so take a new one
+                if (pauses.get() == pausesBefore || System.nanoTime() - pausedUntilNanos.get() >= 0) {
+                    return;
+                }
+            }
+        } finally {
+            waiting.decrementAndGet();
+            if (queued) {
+                queueWaitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private void reject(String operation, String reason) {
+        rejectedCounter.increment();
+        logger.warn("WorkOS {} call rejected by the client-side governor: {}", operation, reason);
+        throw new RejectedException("WorkOS API is busy (" + reason + ")");
+    }
+
+    private void pause(long nanos) {
+        long until = System.nanoTime() + nanos;
+        pausedUntilNanos.accumulateAndGet(until, (current, next) -> next - current > 0 ? next : current);
+        pauses.incrementAndGet();
+        limiter.block(BUCKET, nanos);
+    }
+
+    /**
+     * Retry-After for a rate-limited (HTTP 429) failure anywhere in the cause
+     * chain, or -1 if the failure is not a rate limit
+     *
+     * The SDK exceptions are matched by status (status field or getStatus()),
+     * since their types differ between SDK versions. Only when nothing in the
+     * chain exposes a status is the message checked for a 429, "Too Many
+     * Requests" or "rate limit".
+     */
+    long retryAfterNanos(Throwable e) {
+        Throwable rateLimited = null;
+        boolean hasStatus = false;
+        for (Throwable t = e; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            Integer status = status(t);
+            if (status != null) {
+                hasStatus = true;
+                if (status == 429) {
+                    rateLimited = t;
+                    break;
+                }
+            }
+        }
+        if (!hasStatus) {
+            for (Throwable t = e; t != null; t = t.getCause() == t ? null : t.getCause()) {
+                String lower = t.getMessage() != null ? t.getMessage().toLowerCase(Locale.ROOT) : "";
+                if (STATUS_429.matcher(lower).find() || lower.contains("too many requests") || lower.contains("rate limit")) {
+                    rateLimited = t;
+                    break;
+                }
+            }
+        }
+        if (rateLimited == null) {
+            return -1;
+        }
+        String message = rateLimited.getMessage() != null ? rateLimited.getMessage() : "";
+        Matcher matcher = RETRY_AFTER.matcher(message);
+        long retryAfterMs = matcher.find()
+            ? TimeUnit.SECONDS.toMillis(Integer.parseInt(matcher.group(1)))
+            : defaultRetryAfterMs;
+        return TimeUnit.MILLISECONDS.toNanos(Math.min(retryAfterMs, TimeUnit.MINUTES.toMillis(1)));
+    }
+
+    private static Integer status(Throwable t) {
+        try {
+            Method getter = t.getClass().getMethod("getStatus");
+            Object status = getter.invoke(t);
+            return status instanceof Integer ? (Integer) status : null;
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+            // Fall back to a public status field
+        }
+        try {
+            Field field = t.getClass().getField("status");
+            Object status = field.get(t);
+            return status instanceof Integer ? (Integer) status : null;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Thrown when a WorkOS call is not attempted because of the client-side
+     * rate limit; the caller should fail fast
+     */
+    public static class RejectedException extends RuntimeException {
+        public RejectedException(String message) {
+            super(message);
+        }
+    }
+}
@@ -1,25 +1,35 @@
 package com.example.workospoc.controller;
 
 import com.example.workospoc.config.JwtUtil;
+import com.example.workospoc.config.JwtValidationResult;
+import com.example.workospoc.config.PasswordHashingExecutor;
+import com.example.workospoc.config.TokenRevocationLogoutHandler;
 import com.example.workospoc.config.UserPrincipal;
-import com.example.workospoc.config.WorkOSConfig;
+import io.jsonwebtoken.Claims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api")
 @CrossOrigin(origins = "*")
 public class AuthController {
@@ -30,92 +40,61 @@ public class AuthController {
     private AuthenticationManager authenticationManager;
 
     @Autowired
-    private UserDetailsService userDetailsService;
+    private JwtUtil jwtUtil;
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private PasswordHashingExecutor passwordHashingExecutor;
 
     @Autowired
-    private WorkOSConfig workOSConfig;
+    private CurrentUserResponseCache currentUserResponseCache;
 
+    @Autowired
+    private TokenRevocationLogoutHandler tokenRevocationLogoutHandler;
+
+    // Tokens with more than this much lifetime left are returned unchanged by /auth/token/renew
+    @Value("${jwt.renewal.window-ms:21600000}")
+    private long renewalWindowMs;
+
+    // Body for principals that are not local/JWT users (e.g. session-only SSO)
+    private static final byte[] NOT_AUTHENTICATED_BODY = "{\"authenticated\":false}".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Current user details
+     *
+     * The body is precomputed per signed-in user and carries a strong ETag; browsers
+     * revalidate with If-None-Match (Cache-Control: no-cache) and get a
+     * header-only 304 while the user's details are unchanged.
+     */
     @GetMapping("/me")
-    public ResponseEntity<Map<String, Object>> getCurrentUser(
+    public ResponseEntity<byte[]> getCurrentUser(
             Authentication authentication,
-            HttpServletRequest request) {
-        Map<String, Object> response = new HashMap<>();
-        
-        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal) {
-            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            
-            response.put("username", userPrincipal.getUsername());
-            response.put("corpId", userPrincipal.getCorpId());
-            response.put("role", userPrincipal.getRole());
-            response.put("authenticated", true);
-            
-            // Extract additional WorkOS profile information from JWT token
-            try {
-                String authHeader = request.getHeader("Authorization");
-                if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                    String jwtToken = authHeader.substring(7);
-                    String connectionId = jwtUtil.getClaimFromToken(jwtToken, "connectionId");
-                    String firstName = jwtUtil.getClaimFromToken(jwtToken, "firstName");
-                    String lastName = jwtUtil.getClaimFromToken(jwtToken, "lastName");
-                    String connectionType = jwtUtil.getClaimFromToken(jwtToken, "connectionType");
-                    String organizationId = jwtUtil.getClaimFromToken(jwtToken, "organizationId");
-                    
-                    // Add connection ID and related information
-                    if (connectionId != null && !connectionId.isEmpty()) {
-                        response.put("connectionId", connectionId);
-                        
-                        // Get logo from WorkOSConfig
-                        String logo = workOSConfig.getLogoByConnectionId(connectionId);
-                        if (logo != null && !logo.isEmpty()) {
-                            response.put("idpLogo", logo);
-                        }
-                        
-                        // Get IdP name from WorkOSConfig
-                        String idpName = workOSConfig.getIdpNameByConnectionId(connectionId);
-                        if (idpName != null && !idpName.isEmpty()) {
-                            response.put("idpName", idpName);
-                        }
-                    }
-                    
-                    // Build full name from firstName and lastName
-                    if (firstName != null || lastName != null) {
-                        StringBuilder fullName = new StringBuilder();
-                        if (firstName != null && !firstName.trim().isEmpty()) {
-                            fullName.append(firstName.trim());
-                        }
-                        if (lastName != null && !lastName.trim().isEmpty()) {
-                            if (fullName.length() > 0) {
-                                fullName.append(" ");
-                            }
-                            fullName.append(lastName.trim());
-                        }
-                        if (fullName.length() > 0) {
-                            response.put("fullName", fullName.toString());
-                        }
-                    }
-                    
-                    // Add connection type (e.g., "SAML")
-                    if (connectionType != null && !connectionType.isEmpty()) {
-                        response.put("connectionType", connectionType.toUpperCase());
-                    }
-                    
-                    // Add organization ID
-                    if (organizationId != null && !organizationId.isEmpty()) {
-                        response.put("organizationId", organizationId);
-                    }
-                }
-            } catch (Exception e) {
-                // Log but don't fail the request if extraction fails
-                logger.debug("Could not extract WorkOS profile information from JWT: {}", e.getMessage());
-            }
-        } else {
-            response.put("authenticated", false);
+            HttpServletRequest request) throws IOException {
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal)) {
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(NOT_AUTHENTICATED_BODY);
         }
-        
-        return ResponseEntity.ok(response);
+
+        String authHeader = request.getHeader("Authorization");
+        String jwtToken = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
+        // Claims already verified by JwtRequestFilter for this request
+        Object validation = request.getAttribute(JwtValidationResult.REQUEST_ATTRIBUTE);
+        Claims claims = validation instanceof JwtValidationResult ? ((JwtValidationResult) validation).getClaims() : null;
+        CurrentUserResponseCache.Entry entry =
+            currentUserResponseCache.get((UserPrincipal) authentication.getPrincipal(), jwtToken, claims);
+
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (entry.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(entry.getEtag())
+                .cacheControl(cacheControl)
+                .build();
+        }
+        return ResponseEntity.ok()
+            .eTag(entry.getEtag())
+            .cacheControl(cacheControl)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(entry.getBody());
     }
 
     @PostMapping("/auth/login")
@@ -123,17 +102,17 @@ public class AuthController {
         try {
             System.out.println("Login attempt for user: " + loginRequest.getUsername());
             
-            // Authenticate the user
-            Authentication authentication = authenticationManager.authenticate(
+            // Authenticate the user on the bounded password-hashing pool (not on the Tomcat thread)
+            Authentication authentication = passwordHashingExecutor.execute(() -> authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())
-            );
+            ));
 
-            // Get user details
-            UserDetails userDetails = userDetailsService.loadUserByUsername(loginRequest.getUsername());
-            UserPrincipal userPrincipal = (UserPrincipal) userDetails;
+            // The authentication manager has already loaded the user
+            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
 
             // Generate JWT token
             String token = jwtUtil.generateJwtToken(authentication, userPrincipal.getCorpId(), userPrincipal.getRole());
+            jwtUtil.recordIssued(JwtUtil.ISSUED_LOGIN);
 
             // Create response
             Map<String, Object> response = new HashMap<>();
@@ -144,6 +123,14 @@ public class AuthController {
             response.put("message", "Login successful");
 
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingExecutor.RejectedException e) {
+            // Shed load quickly rather than queueing behind a credential-stuffing burst
+            logger.warn("Login rejected for user {}: {}", loginRequest.getUsername(), e.getMessage());
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", "Login service is busy, please retry shortly");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
         } catch (Exception e) {
             System.out.println("Login error: " + e.getMessage());
             e.printStackTrace();
@@ -153,8 +140,53 @@ public class AuthController {
         }
     }
 
+    /**
+     * Reissue a still-valid bearer token without a new login
+     *
+     * The token is verified (and checked for revocation) by JwtRequestFilter;
+     * no WorkOS or corp-mapping calls are made, so clients can renew
+     * silently before expiry instead of going through the SSO callback. Once
+     * the new token is issued the old one is revoked (and a reference handle
+     * discarded), so each session has one live token.
+     */
+    @PostMapping("/auth/token/renew")
+    public ResponseEntity<Map<String, Object>> renewToken(HttpServletRequest request) {
+        Object validation = request.getAttribute(JwtValidationResult.REQUEST_ATTRIBUTE);
+        JwtValidationResult result = validation instanceof JwtValidationResult
+            ? (JwtValidationResult) validation
+            : JwtValidationResult.failure(JwtValidationResult.Reason.MISSING);
+        Map<String, Object> response = new HashMap<>();
+        if (!result.isValid()) {
+            response.put("error", "Token cannot be renewed");
+            response.put("reason", result.getReason().getCode());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+
+        Claims claims = result.getClaims();
+        long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : 0;
+        if (expiresAt - System.currentTimeMillis() > renewalWindowMs) {
+            // Too early: keep the current token rather than minting extra ones
+            response.put("token", request.getHeader("Authorization").substring(7));
+            response.put("renewed", false);
+            return ResponseEntity.ok(response);
+        }
+
+        String token = jwtUtil.renewToken(claims);
+        if (token == null) {
+            response.put("error", "Session has reached its maximum lifetime, please log in again");
+            response.put("reason", "max_session");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        tokenRevocationLogoutHandler.revoke(request.getHeader("Authorization").substring(7), claims);
+        response.put("token", token);
+        response.put("renewed", true);
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping("/auth/logout")
-    public ResponseEntity<Map<String, String>> logout() {
+    public ResponseEntity<Map<String, String>> logout(HttpServletRequest request) {
+        // Revoke the bearer token so a leaked copy cannot be used until it expires
+        tokenRevocationLogoutHandler.logout(request, null, SecurityContextHolder.getContext().getAuthentication());
         SecurityContextHolder.clearContext();
         Map<String, String> response = new HashMap<>();
         response.put("message", "Logged out successfully");
@@ -0,0 +1,200 @@
+package com.example.workospoc.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight table for SSO authorization codes
+ *
+ * Browsers often hit the callback twice with the same code (refresh, back
+ * button, double redirect). The first request runs the code exchange; any
+ * concurrent or repeated request for the same code within the TTL waits for
+ * and replays the same outcome instead of issuing a second (failing)
+ * getProfileAndToken call and duplicate corp-mapping calls.
+ *
+ * Outcomes are only shared with requests from the same client address, so a
+ * leaked code cannot be replayed from elsewhere to obtain the token. Only a
+ * sign-in is kept for the TTL. Any other outcome (error or busy redirect,
+ * 429) goes to the requests already waiting and is then forgotten, like an
+ * exchange that throws, so a retry after a transient WorkOS or corp-mapping
+ * failure runs a fresh exchange. The table is bounded; when full, codes are
+ * processed without deduplication.
+ */
+@Component
+public class AuthorizationCodeSingleFlight {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthorizationCodeSingleFlight.class);
+
+    @Value("${workos.callback.dedup.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${workos.callback.dedup.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${workos.callback.dedup.wait-timeout-ms:15000}")
+    private long waitTimeoutMs;
+
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+    private final Counter deduplicated;
+    private final Counter bypassed;
+
+    public AuthorizationCodeSingleFlight(MeterRegistry meterRegistry) {
+        this.deduplicated = Counter.builder("auth.callback.deduplicated")
+            .description("Callbacks that reused the outcome of an earlier exchange for the same code")
+            .register(meterRegistry);
+        this.bypassed = Counter.builder("auth.callback.dedup.bypassed")
+            .description("Callbacks processed without deduplication because the table was full")
+            .register(meterRegistry);
+        Gauge.builder("auth.callback.dedup.entries", flights, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Run the exchange for a code, or wait for and return the outcome of the
+     * exchange already started for it
+     *
+     * @param code     the authorization code
+     * @param clientId identifies the requesting client (remote address)
+     * @param exchange performs the code exchange; exceptions and failure
+     *                 outcomes are propagated to all waiters and the code is forgotten
+     */
+    public CallbackOutcome execute(String code, String clientId, Callable<CallbackOutcome> exchange) throws Exception {
+        long now = System.nanoTime();
+        if (isFull(now)) {
+            return exchange.call();
+        }
+
+        Flight created = new Flight(clientId, now + TimeUnit.SECONDS.toNanos(ttlSeconds));
+        Flight flight = join(code, clientId, created, now);
+        if (flight != created) {
+            return await(flight);
+        }
+
+        try {
+            CallbackOutcome outcome = exchange.call();
+            complete(code, flight, outcome);
+            return outcome;
+        } catch (Exception e) {
+            flight.result.completeExceptionally(e);
+            flights.remove(code, flight);
+            throw e;
+        }
+    }
+
+    /**
+     * Non-blocking variant of execute() for the reactive callback: waiters
+     * subscribe to the shared outcome instead of blocking a thread on it
+     */
+    public Mono<CallbackOutcome> executeReactive(String code, String clientId, Supplier<Mono<CallbackOutcome>> exchange) {
+        return Mono.defer(() -> {
+            long now = System.nanoTime();
+            if (isFull(now)) {
+                return exchange.get();
+            }
+
+            Flight created = new Flight(clientId, now + TimeUnit.SECONDS.toNanos(ttlSeconds));
+            Flight flight = join(code, clientId, created, now);
+            if (flight != created) {
+                return Mono.fromFuture(flight.result)
+                    .timeout(Duration.ofMillis(waitTimeoutMs), Mono.error(
+                        new IllegalStateException("Timed out waiting for the authorization code exchange")));
+            }
+
+            return exchange.get()
+                .doOnNext(outcome -> complete(code, flight, outcome))
+                .doOnError(e -> {
+                    flight.result.completeExceptionally(e);
+                    flights.remove(code, flight);
+                })
+                .doOnCancel(() -> {
+                    // The client went away mid-exchange; let waiters retry rather than time out
+                    flight.result.completeExceptionally(new IllegalStateException("Authorization code exchange cancelled"));
+                    flights.remove(code, flight);
+                });
+        });
+    }
+
+    private void complete(String code, Flight flight, CallbackOutcome outcome) {
+        flight.result.complete(outcome);
+        if (!outcome.isSignedIn()) {
+            flights.remove(code, flight);
+        }
+    }
+
+    /**
+     * @return true if the table is full even after dropping expired codes (the
+     *         code is then processed without deduplication)
+     */
+    private boolean isFull(long now) {
+        if (flights.size() >= maxEntries) {
+            flights.values().removeIf(f -> f.isExpired(now));
+            if (flights.size() >= maxEntries) {
+                bypassed.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Register created for the code, or return the live flight already registered
+     *
+     * @throws IllegalStateException if that flight belongs to a different client
+     */
+    private Flight join(String code, String clientId, Flight created, long now) {
+        Flight flight = flights.compute(code, (k, existing) ->
+            existing != null && !existing.isExpired(now) ? existing : created);
+
+        if (flight != created) {
+            if (!Objects.equals(flight.clientId, clientId)) {
+                logger.warn("Authorization code replayed from a different client ({}), rejecting", clientId);
+                throw new IllegalStateException("Authorization code already used");
+            }
+            deduplicated.increment();
+            logger.info("Duplicate callback for an authorization code already being processed, sharing its result");
+        }
+        return flight;
+    }
+
+    private CallbackOutcome await(Flight flight) throws Exception {
+        try {
+            return flight.result.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out waiting for the authorization code exchange");
+        }
+    }
+
+    private static final class Flight {
+        private final String clientId;
+        private final long expiresAtNanos;
+        private final CompletableFuture<CallbackOutcome> result = new CompletableFuture<>();
+
+        private Flight(String clientId, long expiresAtNanos) {
+            this.clientId = clientId;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.workospoc.controller;
+
+import com.example.workospoc.config.AuthRateLimiter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Result of processing one authorization code: a redirect (with the session
+ * attributes to store) or a 429 rejection
+ *
+ * Kept free of request/response references so duplicate callbacks for the
+ * same code can replay it onto their own response (servlet or WebFlux).
+ * The connectionId and corpId, where known, key the callback's TenantStatistics.
+ */
+final class CallbackOutcome {
+
+    private final String redirectUrl;
+    private final long retryAfterNanos;
+    private final Map<String, Object> sessionAttributes;
+    private final String connectionId;
+    private final String corpId;
+
+    private CallbackOutcome(String redirectUrl, long retryAfterNanos, Map<String, Object> sessionAttributes) {
+        this(redirectUrl, retryAfterNanos, sessionAttributes, null, null);
+    }
+
+    private CallbackOutcome(String redirectUrl, long retryAfterNanos, Map<String, Object> sessionAttributes,
+                            String connectionId, String corpId) {
+        this.redirectUrl = redirectUrl;
+        this.retryAfterNanos = retryAfterNanos;
+        this.sessionAttributes = sessionAttributes;
+        this.connectionId = connectionId;
+        this.corpId = corpId;
+    }
+
+    static CallbackOutcome redirect(String redirectUrl) {
+        return new CallbackOutcome(redirectUrl, 0, Collections.emptyMap());
+    }
+
+    static CallbackOutcome redirect(String redirectUrl, Map<String, Object> sessionAttributes) {
+        return new CallbackOutcome(redirectUrl, 0, Collections.unmodifiableMap(new LinkedHashMap<>(sessionAttributes)));
+    }
+
+    static CallbackOutcome rateLimited(long retryAfterNanos) {
+        return new CallbackOutcome(null, retryAfterNanos, Collections.emptyMap());
+    }
+
+    /**
+     * The same outcome attributed to a tenant
+     */
+    CallbackOutcome forTenant(String connectionId, String corpId) {
+        return new CallbackOutcome(redirectUrl, retryAfterNanos, sessionAttributes, connectionId, corpId);
+    }
+
+    String getConnectionId() {
+        return connectionId;
+    }
+
+    String getCorpId() {
+        return corpId;
+    }
+
+    /**
+     * True if the user was signed in, false for rejections and error redirects
+     */
+    boolean isSignedIn() {
+        return redirectUrl != null && Boolean.TRUE.equals(sessionAttributes.get("user_authenticated"));
+    }
+
+    void applyTo(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (redirectUrl == null) {
+            AuthRateLimiter.reject(response, retryAfterNanos);
+            return;
+        }
+        if (!sessionAttributes.isEmpty()) {
+            HttpSession session = request.getSession();
+            sessionAttributes.forEach(session::setAttribute);
+        }
+        response.sendRedirect(redirectUrl);
+    }
+
+    /**
+     * WebFlux counterpart of applyTo(HttpServletRequest, HttpServletResponse)
+     */
+    Mono<Void> applyTo(ServerWebExchange exchange) {
+        if (redirectUrl == null) {
+            return AuthRateLimiter.reject(exchange.getResponse(), retryAfterNanos);
+        }
+        Mono<Void> storeSession = sessionAttributes.isEmpty() ? Mono.empty() : exchange.getSession()
+            .doOnNext(session -> sessionAttributes.forEach((name, value) -> {
+                // WebSession attributes reject null values; a null clears the attribute, as in the servlet API
+                if (value != null) {
+                    session.getAttributes().put(name, value);
+                } else {
+                    session.getAttributes().remove(name);
+                }
+            }))
+            .then();
+        return storeSession.then(redirect(exchange.getResponse(), redirectUrl));
+    }
+
+    static Mono<Void> redirect(ServerHttpResponse response, String url) {
+        return Mono.defer(() -> {
+            response.setStatusCode(HttpStatus.FOUND);
+            response.getHeaders().setLocation(URI.create(url));
+            return response.setComplete();
+        });
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.workospoc.controller;
+
+import com.example.workospoc.config.WorkOSConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+
+/**
+ * Frontend error redirects for the SSO callback, shared by the servlet and
+ * reactive callback controllers
+ */
+final class CallbackRedirects {
+
+    private static final Logger logger = LoggerFactory.getLogger(CallbackRedirects.class);
+
+    private CallbackRedirects() {
+    }
+
+    /**
+     * Redirect for a callback whose code exchange or processing failed
+     */
+    static String failure(WorkOSConfig workOSConfig, Throwable e) {
+        // Check if this is an unauthorized error (API key issue)
+        if (e.getMessage() != null && e.getMessage().contains("Unauthorized")) {
+            logger.error("WorkOS API Unauthorized error - likely invalid API key");
+            return workOSConfig.getFrontendLoginUrl() + "?error=api_unauthorized&message=" +
+                encode("WorkOS API authentication failed. Please check your API key configuration.");
+        }
+        return workOSConfig.getFrontendLoginUrl() + "?error=sso_failed&message=" +
+            encode("Authentication failed: " + e.getMessage());
+    }
+
+    /**
+     * Redirect for a callback shed under load (fair-share scheduler or WorkOS rate governor)
+     */
+    static String busy(WorkOSConfig workOSConfig) {
+        return workOSConfig.getFrontendLoginUrl() + "?error=busy&message=" +
+            encode("Sign-in is busy right now, please try again in a moment");
+    }
+
+    /**
+     * Redirect for an error reported by WorkOS on the callback (error/error_description parameters)
+     */
+    static String oauthError(WorkOSConfig workOSConfig, String error, String errorDescription) {
+        logger.error("❌ OAuth Error: {} - {}", error, errorDescription);
+
+        if ("access_denied".equals(error)) {
+            return workOSConfig.getFrontendLoginUrl() + "?error=access_denied&message=" +
+                encode("Access denied by user");
+        } else if ("invalid_request".equals(error)) {
+            return workOSConfig.getFrontendLoginUrl() + "?error=invalid_request&message=" +
+                encode("Invalid request parameters");
+        } else if ("domain_not_allowed".equals(error)) {
+            return workOSConfig.getFrontendLoginUrl() + "?error=domain_not_allowed&message=" +
+                encode("Please use an email from an allowed domain (e.g., @example.com)");
+        } else if ("server_error".equals(error) && errorDescription != null && errorDescription.contains("SAML")) {
+            // SAML configuration error - provide specific guidance
+            logger.error("❌ SAML Configuration Error: {}", errorDescription);
+            logger.error("   This usually means one of the following:");
+            logger.error("   1. ACS URL in Okta doesn't match WorkOS ACS URL exactly");
+            logger.error("   2. Entity ID (Audience URI) mismatch between Okta and WorkOS");
+            logger.error("   3. SAML signing certificate mismatch");
+            logger.error("   4. Name ID format mismatch");
+            logger.error("   5. Missing required SAML attributes");
+            logger.error("   6. SAML response signature validation failed");
+            logger.error("   Please verify all SAML settings in Okta match WorkOS configuration");
+
+            String detailedMessage = String.format(
+                "SAML Configuration Error: %s. Please verify: ACS URL, Entity ID, Certificate, Name ID format, and SAML attributes match WorkOS settings.",
+                errorDescription
+            );
+            return workOSConfig.getFrontendLoginUrl() + "?error=saml_config_error&message=" + encode(detailedMessage);
+        } else {
+            return workOSConfig.getFrontendLoginUrl() + "?error=sso_failed&message=" +
+                encode(errorDescription != null ? errorDescription : "SSO authentication failed");
+        }
+    }
+
+    static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException("UTF-8 is not supported", e);
+        }
+    }
+}
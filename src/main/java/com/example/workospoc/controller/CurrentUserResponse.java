@@ -0,0 +1,78 @@
+package com.example.workospoc.controller;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Immutable body of GET /api/me
+ *
+ * Built once per signed-in user and serialized once; null fields are omitted.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class CurrentUserResponse {
+
+    private final String username;
+    private final String corpId;
+    private final String role;
+    private final boolean authenticated;
+    private final String connectionId;
+    private final String idpLogo;
+    private final String idpName;
+    private final String fullName;
+    private final String connectionType;
+    private final String organizationId;
+
+    public CurrentUserResponse(String username, String corpId, String role, boolean authenticated,
+                               String connectionId, String idpLogo, String idpName, String fullName,
+                               String connectionType, String organizationId) {
+        this.username = username;
+        this.corpId = corpId;
+        this.role = role;
+        this.authenticated = authenticated;
+        this.connectionId = connectionId;
+        this.idpLogo = idpLogo;
+        this.idpName = idpName;
+        this.fullName = fullName;
+        this.connectionType = connectionType;
+        this.organizationId = organizationId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getCorpId() {
+        return corpId;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public boolean isAuthenticated() {
+        return authenticated;
+    }
+
+    public String getConnectionId() {
+        return connectionId;
+    }
+
+    public String getIdpLogo() {
+        return idpLogo;
+    }
+
+    public String getIdpName() {
+        return idpName;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public String getConnectionType() {
+        return connectionType;
+    }
+
+    public String getOrganizationId() {
+        return organizationId;
+    }
+}
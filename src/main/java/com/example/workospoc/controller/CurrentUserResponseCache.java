@@ -0,0 +1,226 @@
+package com.example.workospoc.controller;
+
+import com.example.workospoc.config.JwtUtil;
+import com.example.workospoc.config.UserPrincipal;
+import com.example.workospoc.config.WorkOSConfig;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Precomputed /api/me responses, one per signed-in user
+ *
+ * Each entry holds the serialized body and a content-derived ETag, so a
+ * repeat call costs a map lookup and an If-None-Match comparison instead of
+ * re-resolving connection metadata and re-serializing. Entries are keyed by
+ * the principal and the token's sign-in time (authTime, kept across
+ * renewals), so renewed tokens share their session's entry and a new sign-in
+ * builds a fresh one. Entries expire with the latest token seen for them;
+ * beyond max-entries the oldest entries are evicted. Connection display data
+ * (logo, IdP name) is resolved once per connectionId.
+ */
+@Component
+public class CurrentUserResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CurrentUserResponseCache.class);
+
+    private final JwtUtil jwtUtil;
+    private final WorkOSConfig workOSConfig;
+    private final ObjectMapper objectMapper;
+
+    @Value("${api.me.cache.max-entries:10000}")
+    private int maxEntries;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final Map<String, ConnectionDisplay> connectionDisplays = new ConcurrentHashMap<>();
+
+    public CurrentUserResponseCache(JwtUtil jwtUtil, WorkOSConfig workOSConfig, ObjectMapper objectMapper) {
+        this.jwtUtil = jwtUtil;
+        this.workOSConfig = workOSConfig;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Get the response for an authenticated principal
+     *
+     * @param principal the authenticated user
+     * @param jwtToken  the bearer token, or null for non-token authentication
+     * @param claims    the token's claims if already verified (e.g. by JwtRequestFilter), or null
+     */
+    public Entry get(UserPrincipal principal, String jwtToken, Claims claims) throws JsonProcessingException {
+        long now = System.currentTimeMillis();
+        if (claims == null && jwtToken != null) {
+            claims = jwtUtil.getClaimsFromToken(jwtToken);
+        }
+        long expiresAt = claims != null && claims.getExpiration() != null ? claims.getExpiration().getTime() : 0;
+
+        // Only bearer-token sessions are cached
+        String key = jwtToken != null && claims != null ? cacheKey(principal, claims) : null;
+        if (key != null) {
+            Entry cached = entries.get(key);
+            if (cached != null && cached.expiresAt >= expiresAt) {
+                return cached;
+            }
+        }
+
+        Entry entry = build(principal, claims, expiresAt);
+        if (key != null && expiresAt > now) {
+            if (entries.put(key, entry) == null) {
+                insertionOrder.add(key);
+                evictOldest();
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * The principal (whose role or corpId can change, e.g. for a local user)
+     * plus the sign-in the token belongs to
+     */
+    private static String cacheKey(UserPrincipal principal, Claims claims) {
+        Object authTime = claims.get(JwtUtil.AUTH_TIME_CLAIM);
+        Object signIn = authTime != null ? authTime
+            : claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() / 1000 : null;
+        return principal.getUsername() + '\n' + principal.getCorpId() + '\n' + principal.getRole() + '\n' + signIn;
+    }
+
+    private void evictOldest() {
+        while (entries.size() > maxEntries) {
+            String oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            entries.remove(oldest);
+        }
+    }
+
+    private Entry build(UserPrincipal principal, Claims claims, long expiresAt) throws JsonProcessingException {
+        String connectionId = null;
+        String idpLogo = null;
+        String idpName = null;
+        String fullName = null;
+        String connectionType = null;
+        String organizationId = null;
+
+        // Additional WorkOS profile information from the JWT
+        if (claims != null) {
+            connectionId = nonEmpty(claims.get("connectionId", String.class));
+            if (connectionId != null) {
+                ConnectionDisplay display = connectionDisplays.computeIfAbsent(connectionId, id -> new ConnectionDisplay(
+                    nonEmpty(workOSConfig.getLogoByConnectionId(id)),
+                    nonEmpty(workOSConfig.getIdpNameByConnectionId(id))));
+                idpLogo = display.logo;
+                idpName = display.idpName;
+            }
+            fullName = buildFullName(claims.get("firstName", String.class), claims.get("lastName", String.class));
+
+            // Connection type (e.g., "SAML")
+            String type = nonEmpty(claims.get("connectionType", String.class));
+            connectionType = type != null ? type.toUpperCase() : null;
+            organizationId = nonEmpty(claims.get("organizationId", String.class));
+        }
+
+        CurrentUserResponse response = new CurrentUserResponse(
+            principal.getUsername(), principal.getCorpId(), principal.getRole(), true,
+            connectionId, idpLogo, idpName, fullName, connectionType, organizationId);
+        byte[] body = objectMapper.writeValueAsBytes(response);
+        logger.debug("Built /api/me response for {} ({} bytes)", principal.getUsername(), body.length);
+        return new Entry(body, expiresAt);
+    }
+
+    private static String buildFullName(String firstName, String lastName) {
+        StringBuilder fullName = new StringBuilder();
+        if (firstName != null && !firstName.trim().isEmpty()) {
+            fullName.append(firstName.trim());
+        }
+        if (lastName != null && !lastName.trim().isEmpty()) {
+            if (fullName.length() > 0) {
+                fullName.append(" ");
+            }
+            fullName.append(lastName.trim());
+        }
+        return fullName.length() > 0 ? fullName.toString() : null;
+    }
+
+    private static String nonEmpty(String value) {
+        return value != null && !value.isEmpty() ? value : null;
+    }
+
+    private static String etagFor(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class ConnectionDisplay {
+        private final String logo;
+        private final String idpName;
+
+        private ConnectionDisplay(String logo, String idpName) {
+            this.logo = logo;
+            this.idpName = idpName;
+        }
+    }
+
+    /**
+     * Serialized response body with its strong ETag
+     */
+    public static final class Entry {
+        private final byte[] body;
+        private final String etag;
+        private final long expiresAt;
+
+        private Entry(byte[] body, long expiresAt) {
+            this.body = body;
+            this.etag = etagFor(body);
+            this.expiresAt = expiresAt;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * Check an If-None-Match header value against this entry's ETag
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            if ("*".equals(ifNoneMatch.trim())) {
+                return true;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (etag.equals(tag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
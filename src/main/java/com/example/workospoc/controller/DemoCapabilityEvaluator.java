@@ -0,0 +1,67 @@
+package com.example.workospoc.controller;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.security.access.expression.SecurityExpressionRoot;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates DemoController's access rules for a principal without calling
+ * the endpoints
+ *
+ * The rules are the same SpEL expressions used in @PreAuthorize, parsed once
+ * and evaluated against a SecurityExpressionRoot, so a single request (one
+ * token verification) answers every probe.
+ */
+@Component
+class DemoCapabilityEvaluator {
+
+    private final Map<String, Expression> rules = new LinkedHashMap<>();
+
+    DemoCapabilityEvaluator() {
+        SpelExpressionParser parser = new SpelExpressionParser();
+        rules.put("admin", parser.parseExpression(DemoController.ADMIN_RULE));
+        rules.put("manager", parser.parseExpression(DemoController.MANAGER_RULE));
+        rules.put("user", parser.parseExpression(DemoController.USER_RULE));
+        rules.put("support", parser.parseExpression(DemoController.SUPPORT_RULE));
+    }
+
+    boolean isKnown(String probe) {
+        return rules.containsKey(probe);
+    }
+
+    List<String> getProbeNames() {
+        return Collections.unmodifiableList(new ArrayList<>(rules.keySet()));
+    }
+
+    Map<String, Boolean> evaluateAll(Authentication authentication) {
+        return evaluate(rules.keySet(), authentication);
+    }
+
+    Map<String, Boolean> evaluate(Iterable<String> probes, Authentication authentication) {
+        EvaluationContext context = context(authentication);
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        for (String probe : probes) {
+            Expression rule = rules.get(probe);
+            result.put(probe, rule != null && Boolean.TRUE.equals(rule.getValue(context, Boolean.class)));
+        }
+        return result;
+    }
+
+    private static EvaluationContext context(Authentication authentication) {
+        SecurityExpressionRoot root = new SecurityExpressionRoot(authentication) {
+        };
+        root.setTrustResolver(new AuthenticationTrustResolverImpl());
+        return new StandardEvaluationContext(root);
+    }
+}
@@ -1,21 +1,66 @@
 package com.example.workospoc.controller;
 
 import com.example.workospoc.config.UserPrincipal;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/demo")
 @CrossOrigin(origins = "*")
 public class DemoController {
 
+    // Access rules, shared by @PreAuthorize and the capabilities endpoint
+    static final String ADMIN_RULE = "hasRole('ADMIN')";
+    static final String MANAGER_RULE = "hasRole('MANAGER') or hasRole('ADMIN')";
+    static final String USER_RULE = "hasRole('USER') or hasRole('MANAGER') or hasRole('ADMIN')";
+    static final String SUPPORT_RULE = "isAuthenticated()";
+
+    private final DemoCapabilityEvaluator capabilityEvaluator;
+
+    public DemoController(DemoCapabilityEvaluator capabilityEvaluator) {
+        this.capabilityEvaluator = capabilityEvaluator;
+    }
+
+    /**
+     * Capability map for the current user: which demo endpoints it may call
+     */
+    @GetMapping("/capabilities")
+    public ResponseEntity<Map<String, Boolean>> capabilities(Authentication authentication) {
+        return ResponseEntity.ok(capabilityEvaluator.evaluateAll(authentication));
+    }
+
+    /**
+     * Evaluate a list of permission probes, e.g. {"probes": ["admin", "manager"]}
+     */
+    @PostMapping("/capabilities")
+    public ResponseEntity<Map<String, Object>> probeCapabilities(@RequestBody Map<String, List<String>> request,
+                                                                 Authentication authentication) {
+        List<String> probes = request.get("probes");
+        if (probes == null || probes.isEmpty()) {
+            return ResponseEntity.ok(new LinkedHashMap<>(capabilityEvaluator.evaluateAll(authentication)));
+        }
+        for (String probe : probes) {
+            if (!capabilityEvaluator.isKnown(probe)) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("error", "Unknown probe: " + probe);
+                error.put("probes", capabilityEvaluator.getProbeNames());
+                return ResponseEntity.badRequest().body(error);
+            }
+        }
+        return ResponseEntity.ok(new LinkedHashMap<>(capabilityEvaluator.evaluate(probes, authentication)));
+    }
+
     @GetMapping("/admin")
-    @PreAuthorize("hasRole('ADMIN')")
+    @PreAuthorize(ADMIN_RULE)
     public ResponseEntity<Map<String, Object>> adminEndpoint(Authentication authentication) {
         Map<String, Object> response = new HashMap<>();
         response.put("message", "This is an admin-only endpoint");
@@ -24,7 +69,7 @@ public class DemoController {
     }
 
     @GetMapping("/manager")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    @PreAuthorize(MANAGER_RULE)
     public ResponseEntity<Map<String, Object>> managerEndpoint(Authentication authentication) {
         Map<String, Object> response = new HashMap<>();
         response.put("message", "This is a manager endpoint");
@@ -33,7 +78,7 @@ public class DemoController {
     }
 
     @GetMapping("/user")
-    @PreAuthorize("hasRole('USER') or hasRole('MANAGER') or hasRole('ADMIN')")
+    @PreAuthorize(USER_RULE)
     public ResponseEntity<Map<String, Object>> userEndpoint(Authentication authentication) {
         Map<String, Object> response = new HashMap<>();
         response.put("message", "This is a user endpoint");
@@ -42,6 +87,7 @@ public class DemoController {
     }
 
     @GetMapping("/support")
+    @PreAuthorize(SUPPORT_RULE)
     public ResponseEntity<Map<String, Object>> supportEndpoint(Authentication authentication) {
         Map<String, Object> response = new HashMap<>();
         response.put("message", "This is a support endpoint - accessible to all authenticated users");
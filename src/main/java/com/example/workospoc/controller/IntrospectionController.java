@@ -0,0 +1,134 @@
+package com.example.workospoc.controller;
+
+import com.example.workospoc.config.ApiKeys;
+import com.example.workospoc.config.TokenIntrospector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Token introspection for internal services (in the spirit of RFC 7662)
+ *
+ * POST /api/introspect with {"token": "..."} (or form parameter token=...)
+ * returns one result; {"tokens": ["...", "..."]} returns {"results": [...]}
+ * in request order. Callers authenticate with one of the keys in
+ * introspection.api-keys, sent in the X-Introspection-Key header; the
+ * endpoint is disabled while no keys are configured.
+ */
+@RestController
+@RequestMapping("/api/introspect")
+public class IntrospectionController {
+
+    private static final Logger logger = LoggerFactory.getLogger(IntrospectionController.class);
+
+    static final String API_KEY_HEADER = "X-Introspection-Key";
+
+    @Value("${introspection.max-batch-size:100}")
+    private int maxBatchSize;
+
+    private final TokenIntrospector tokenIntrospector;
+    private final ApiKeys apiKeys;
+
+    public IntrospectionController(TokenIntrospector tokenIntrospector,
+                                   @Value("${introspection.api-keys:}") String apiKeysSpec) {
+        this.tokenIntrospector = tokenIntrospector;
+        this.apiKeys = new ApiKeys(apiKeysSpec);
+        if (apiKeys.isEmpty()) {
+            logger.info("Token introspection disabled (no introspection.api-keys configured)");
+        }
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> introspectJson(@RequestHeader(value = API_KEY_HEADER, required = false) String apiKey,
+                                            @RequestBody Map<String, Object> request) {
+        if (!authorized(apiKey)) {
+            return unauthorized();
+        }
+        Object tokens = request.get("tokens");
+        if (tokens instanceof List) {
+            List<?> batch = (List<?>) tokens;
+            if (batch.size() > maxBatchSize) {
+                return badRequest("Batch exceeds " + maxBatchSize + " tokens");
+            }
+            List<String> values = new ArrayList<>(batch.size());
+            for (Object token : batch) {
+                values.add(token instanceof String ? (String) token : null);
+            }
+            return ok(Collections.singletonMap("results", tokenIntrospector.introspect(values)));
+        }
+        Object token = request.get("token");
+        if (!(token instanceof String)) {
+            return badRequest("Expected \"token\" or \"tokens\"");
+        }
+        return ok(tokenIntrospector.introspect((String) token));
+    }
+
+    /**
+     * Form-encoded variant; bound as a model attribute because WebFlux, unlike
+     * Spring MVC, does not bind form fields to @RequestParam
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public ResponseEntity<?> introspectForm(@RequestHeader(value = API_KEY_HEADER, required = false) String apiKey,
+                                            @ModelAttribute TokenForm form) {
+        if (!authorized(apiKey)) {
+            return unauthorized();
+        }
+        if (form.getToken() == null) {
+            return badRequest("Expected \"token\"");
+        }
+        return ok(tokenIntrospector.introspect(form.getToken()));
+    }
+
+    private boolean authorized(String apiKey) {
+        return apiKeys.matches(apiKey);
+    }
+
+    private static ResponseEntity<?> ok(Object body) {
+        // Results depend on revocation state; intermediaries must not cache them
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(body);
+    }
+
+    private static ResponseEntity<?> unauthorized() {
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", "invalid_client");
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+    }
+
+    private static ResponseEntity<?> badRequest(String message) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", "invalid_request");
+        error.put("message", message);
+        return ResponseEntity.badRequest().body(error);
+    }
+
+    /**
+     * token=... form body
+     */
+    public static class TokenForm {
+        private String token;
+
+        public String getToken() {
+            return token;
+        }
+
+        public void setToken(String token) {
+            this.token = token;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.workospoc.controller;
+
+import com.example.workospoc.config.JwtUtil;
+import com.example.workospoc.config.JwtValidationResult;
+import com.example.workospoc.config.PasswordHashingExecutor;
+import com.example.workospoc.config.TokenRevocationLogoutHandler;
+import com.example.workospoc.config.UserPrincipal;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebSession;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * WebFlux flavour of AuthController (reactive profile)
+ *
+ * Password verification runs on the bounded password hashing pool and the
+ * response is emitted from there, so no event-loop thread waits for BCrypt.
+ * Everything else only reads the verified claims and runs on the event loop.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api")
+@CrossOrigin(origins = "*")
+public class ReactiveAuthController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveAuthController.class);
+
+    // Body for principals that are not local/JWT users (e.g. session-only SSO)
+    private static final byte[] NOT_AUTHENTICATED_BODY = "{\"authenticated\":false}".getBytes(StandardCharsets.UTF_8);
+
+    private final AuthenticationManager authenticationManager;
+    private final JwtUtil jwtUtil;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final CurrentUserResponseCache currentUserResponseCache;
+    private final TokenRevocationLogoutHandler tokenRevocationLogoutHandler;
+
+    // Tokens with more than this much lifetime left are returned unchanged by /auth/token/renew
+    @Value("${jwt.renewal.window-ms:21600000}")
+    private long renewalWindowMs;
+
+    public ReactiveAuthController(AuthenticationManager authenticationManager, JwtUtil jwtUtil,
+                                  PasswordHashingExecutor passwordHashingExecutor,
+                                  CurrentUserResponseCache currentUserResponseCache,
+                                  TokenRevocationLogoutHandler tokenRevocationLogoutHandler) {
+        this.authenticationManager = authenticationManager;
+        this.jwtUtil = jwtUtil;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.currentUserResponseCache = currentUserResponseCache;
+        this.tokenRevocationLogoutHandler = tokenRevocationLogoutHandler;
+    }
+
+    /**
+     * Current user details, with the same precomputed body and ETag/304 handling as the servlet build
+     */
+    @GetMapping("/me")
+    public Mono<ResponseEntity<byte[]>> getCurrentUser(ServerWebExchange exchange) {
+        return exchange.getPrincipal()
+            .filter(principal -> principal instanceof Authentication
+                && ((Authentication) principal).getPrincipal() instanceof UserPrincipal)
+            .map(principal -> currentUser(exchange, (UserPrincipal) ((Authentication) principal).getPrincipal()))
+            .defaultIfEmpty(ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(NOT_AUTHENTICATED_BODY));
+    }
+
+    private ResponseEntity<byte[]> currentUser(ServerWebExchange exchange, UserPrincipal principal) {
+        String jwtToken = bearerToken(exchange);
+        // Claims already verified by ReactiveJwtWebFilter for this request
+        JwtValidationResult validation = validationResult(exchange);
+        CurrentUserResponseCache.Entry entry;
+        try {
+            entry = currentUserResponseCache.get(principal, jwtToken, validation.getClaims());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the current user", e);
+        }
+
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (entry.matches(exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(entry.getEtag())
+                .cacheControl(cacheControl)
+                .build();
+        }
+        return ResponseEntity.ok()
+            .eTag(entry.getEtag())
+            .cacheControl(cacheControl)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(entry.getBody());
+    }
+
+    @PostMapping("/auth/login")
+    public Mono<ResponseEntity<Map<String, Object>>> login(@RequestBody AuthController.LoginRequest loginRequest) {
+        logger.info("Login attempt for user: {}", loginRequest.getUsername());
+        return passwordHashingExecutor.executeAsync(() -> authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())))
+            .map(this::loginResponse)
+            .onErrorResume(PasswordHashingExecutor.RejectedException.class, e -> {
+                // Shed load quickly rather than queueing behind a credential-stuffing burst
+                logger.warn("Login rejected for user {}: {}", loginRequest.getUsername(), e.getMessage());
+                Map<String, Object> response = new HashMap<>();
+                response.put("error", "Login service is busy, please retry shortly");
+                return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(response));
+            })
+            .onErrorResume(e -> {
+                logger.warn("Login error for user {}: {}", loginRequest.getUsername(), e.getMessage());
+                Map<String, Object> response = new HashMap<>();
+                response.put("error", "Invalid username or password: " + e.getMessage());
+                return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response));
+            });
+    }
+
+    private ResponseEntity<Map<String, Object>> loginResponse(Authentication authentication) {
+        // The authentication manager has already loaded the user
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+
+        String token = jwtUtil.generateJwtToken(authentication, userPrincipal.getCorpId(), userPrincipal.getRole());
+        jwtUtil.recordIssued(JwtUtil.ISSUED_LOGIN);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("token", token);
+        response.put("username", userPrincipal.getUsername());
+        response.put("corpId", userPrincipal.getCorpId());
+        response.put("role", userPrincipal.getRole());
+        response.put("message", "Login successful");
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Reissue a still-valid bearer token without a new login (see AuthController.renewToken)
+     */
+    @PostMapping("/auth/token/renew")
+    public Mono<ResponseEntity<Map<String, Object>>> renewToken(ServerWebExchange exchange) {
+        return Mono.fromSupplier(() -> {
+            JwtValidationResult result = validationResult(exchange);
+            Map<String, Object> response = new HashMap<>();
+            if (!result.isValid()) {
+                response.put("error", "Token cannot be renewed");
+                response.put("reason", result.getReason().getCode());
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+            }
+
+            Claims claims = result.getClaims();
+            long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : 0;
+            if (expiresAt - System.currentTimeMillis() > renewalWindowMs) {
+                // Too early: keep the current token rather than minting extra ones
+                response.put("token", bearerToken(exchange));
+                response.put("renewed", false);
+                return ResponseEntity.ok(response);
+            }
+
+            String token = jwtUtil.renewToken(claims);
+            if (token == null) {
+                response.put("error", "Session has reached its maximum lifetime, please log in again");
+                response.put("reason", "max_session");
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+            }
+            tokenRevocationLogoutHandler.revoke(bearerToken(exchange), claims);
+            response.put("token", token);
+            response.put("renewed", true);
+            return ResponseEntity.ok(response);
+        });
+    }
+
+    @PostMapping("/auth/logout")
+    public Mono<ResponseEntity<Map<String, String>>> logout(ServerWebExchange exchange) {
+        // Revoke the bearer token so a leaked copy cannot be used until it expires
+        tokenRevocationLogoutHandler.revoke(exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+        return exchange.getSession()
+            .flatMap(WebSession::invalidate)
+            .then(Mono.fromSupplier(() -> {
+                Map<String, String> response = new HashMap<>();
+                response.put("message", "Logged out successfully");
+                return ResponseEntity.ok(response);
+            }));
+    }
+
+    private static String bearerToken(ServerWebExchange exchange) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        return authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
+    }
+
+    private static JwtValidationResult validationResult(ServerWebExchange exchange) {
+        Object validation = exchange.getAttribute(JwtValidationResult.REQUEST_ATTRIBUTE);
+        return validation instanceof JwtValidationResult
+            ? (JwtValidationResult) validation
+            : JwtValidationResult.failure(JwtValidationResult.Reason.MISSING);
+    }
+}
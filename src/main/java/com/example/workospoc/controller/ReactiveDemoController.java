@@ -0,0 +1,105 @@
+package com.example.workospoc.controller;
+
+import com.example.workospoc.config.UserPrincipal;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WebFlux flavour of DemoController (reactive profile)
+ *
+ * Same endpoints, access rules and capability probes; the handlers only
+ * read the principal, so they run directly on the event loop.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/demo")
+@CrossOrigin(origins = "*")
+public class ReactiveDemoController {
+
+    private final DemoCapabilityEvaluator capabilityEvaluator;
+
+    public ReactiveDemoController(DemoCapabilityEvaluator capabilityEvaluator) {
+        this.capabilityEvaluator = capabilityEvaluator;
+    }
+
+    @GetMapping("/capabilities")
+    public Mono<ResponseEntity<Map<String, Boolean>>> capabilities(Authentication authentication) {
+        return Mono.fromSupplier(() -> ResponseEntity.ok(capabilityEvaluator.evaluateAll(authentication)));
+    }
+
+    @PostMapping("/capabilities")
+    public Mono<ResponseEntity<Map<String, Object>>> probeCapabilities(@RequestBody Map<String, List<String>> request,
+                                                                       Authentication authentication) {
+        return Mono.fromSupplier(() -> probe(request.get("probes"), authentication));
+    }
+
+    private ResponseEntity<Map<String, Object>> probe(List<String> probes, Authentication authentication) {
+        if (probes == null || probes.isEmpty()) {
+            return ResponseEntity.ok(new LinkedHashMap<>(capabilityEvaluator.evaluateAll(authentication)));
+        }
+        for (String probe : probes) {
+            if (!capabilityEvaluator.isKnown(probe)) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("error", "Unknown probe: " + probe);
+                error.put("probes", capabilityEvaluator.getProbeNames());
+                return ResponseEntity.badRequest().body(error);
+            }
+        }
+        return ResponseEntity.ok(new LinkedHashMap<>(capabilityEvaluator.evaluate(probes, authentication)));
+    }
+
+    @GetMapping("/admin")
+    @PreAuthorize(DemoController.ADMIN_RULE)
+    public Mono<ResponseEntity<Map<String, Object>>> adminEndpoint(Authentication authentication) {
+        return respond("This is an admin-only endpoint", authentication);
+    }
+
+    @GetMapping("/manager")
+    @PreAuthorize(DemoController.MANAGER_RULE)
+    public Mono<ResponseEntity<Map<String, Object>>> managerEndpoint(Authentication authentication) {
+        return respond("This is a manager endpoint", authentication);
+    }
+
+    @GetMapping("/user")
+    @PreAuthorize(DemoController.USER_RULE)
+    public Mono<ResponseEntity<Map<String, Object>>> userEndpoint(Authentication authentication) {
+        return respond("This is a user endpoint", authentication);
+    }
+
+    @GetMapping("/support")
+    @PreAuthorize(DemoController.SUPPORT_RULE)
+    public Mono<ResponseEntity<Map<String, Object>>> supportEndpoint(Authentication authentication) {
+        return respond("This is a support endpoint - accessible to all authenticated users", authentication);
+    }
+
+    private static Mono<ResponseEntity<Map<String, Object>>> respond(String message, Authentication authentication) {
+        return Mono.fromSupplier(() -> {
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", message);
+            response.put("user", getCurrentUserInfo(authentication));
+            return ResponseEntity.ok(response);
+        });
+    }
+
+    private static Map<String, Object> getCurrentUserInfo(Authentication authentication) {
+        Map<String, Object> userInfo = new HashMap<>();
+
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal) {
+            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+            userInfo.put("username", userPrincipal.getUsername());
+            userInfo.put("corpId", userPrincipal.getCorpId());
+            userInfo.put("role", userPrincipal.getRole());
+        }
+
+        return userInfo;
+    }
+}
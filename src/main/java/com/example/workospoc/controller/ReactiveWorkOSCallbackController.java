@@ -0,0 +1,263 @@
+package com.example.workospoc.controller;
+
+import com.example.workospoc.config.AuthRateLimiter;
+import com.example.workospoc.config.CorpMappingSynchronizer;
+import com.example.workospoc.config.IdentityResolutionCache;
+import com.example.workospoc.config.JwtUtil;
+import com.example.workospoc.config.ReactiveCorpMappingClient;
+import com.example.workospoc.config.ReactiveRateLimitFilter;
+import com.example.workospoc.config.RoleResolutionChain;
+import com.example.workospoc.config.TenantStatistics;
+import com.example.workospoc.config.WorkOSConfig;
+import com.example.workospoc.config.WorkOSRateGovernor;
+import com.workos.WorkOS;
+import com.workos.sso.models.Profile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * WebFlux flavour of WorkOSCallbackController (reactive profile)
+ *
+ * The WorkOS SDK and the role resolution chain are blocking, so they run on
+ * the bounded elastic scheduler. The corp-mapping corpId lookup goes through
+ * ReactiveCorpMappingClient and holds no thread while the upstream answers.
+ * Duplicate callbacks share one exchange through AuthorizationCodeSingleFlight
+ * without blocking. The per-tenant TenantFairScheduler is not used here: it
+ * bounds threads parked on upstream calls, which this flow does not have.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWorkOSCallbackController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveWorkOSCallbackController.class);
+
+    private final WorkOS workOS;
+    private final JwtUtil jwtUtil;
+    private final WorkOSConfig workOSConfig;
+    private final ReactiveCorpMappingClient corpMappingClient;
+    private final CorpMappingSynchronizer corpMappingSynchronizer;
+    private final IdentityResolutionCache identityResolutionCache;
+    private final RoleResolutionChain roleResolutionChain;
+    private final AuthRateLimiter authRateLimiter;
+    private final AuthorizationCodeSingleFlight authorizationCodeSingleFlight;
+    private final WorkOSRateGovernor workOSRateGovernor;
+    private final TenantStatistics tenantStatistics;
+
+    public ReactiveWorkOSCallbackController(WorkOS workOS, JwtUtil jwtUtil, WorkOSConfig workOSConfig,
+                                            ReactiveCorpMappingClient corpMappingClient,
+                                            CorpMappingSynchronizer corpMappingSynchronizer,
+                                            IdentityResolutionCache identityResolutionCache,
+                                            RoleResolutionChain roleResolutionChain, AuthRateLimiter authRateLimiter,
+                                            AuthorizationCodeSingleFlight authorizationCodeSingleFlight,
+                                            WorkOSRateGovernor workOSRateGovernor,
+                                            TenantStatistics tenantStatistics) {
+        this.workOS = workOS;
+        this.jwtUtil = jwtUtil;
+        this.workOSConfig = workOSConfig;
+        this.corpMappingClient = corpMappingClient;
+        this.corpMappingSynchronizer = corpMappingSynchronizer;
+        this.identityResolutionCache = identityResolutionCache;
+        this.roleResolutionChain = roleResolutionChain;
+        this.authRateLimiter = authRateLimiter;
+        this.authorizationCodeSingleFlight = authorizationCodeSingleFlight;
+        this.workOSRateGovernor = workOSRateGovernor;
+        this.tenantStatistics = tenantStatistics;
+    }
+
+    @GetMapping("/auth/workos/callback")
+    public Mono<Void> handleCallback(
+            @RequestParam(value = "code", required = false) String code,
+            @RequestParam(value = "error", required = false) String error,
+            @RequestParam(value = "error_description", required = false) String errorDescription,
+            ServerWebExchange exchange) {
+
+        logger.info("🔔 Callback received - code: {}, error: {}",
+            code != null ? "PRESENT (length: " + code.length() + ")" : "NULL", error);
+        long startNanos = System.nanoTime();
+
+        // Check for OAuth errors first
+        if (error != null) {
+            logger.error("OAuth error detected: {} - {}", error, errorDescription);
+            return CallbackOutcome.redirect(exchange.getResponse(),
+                CallbackRedirects.oauthError(workOSConfig, error, errorDescription))
+                .doFinally(signal -> recordCallback(null, startNanos));
+        }
+        if (code == null) {
+            logger.error("❌ No authorization code received from WorkOS");
+            return CallbackOutcome.redirect(exchange.getResponse(), workOSConfig.getFrontendLoginUrl() + "?error=no_code")
+                .doFinally(signal -> recordCallback(null, startNanos));
+        }
+
+        // Repeated callbacks for the same code share one exchange and one redirect
+        String clientId = ReactiveRateLimitFilter.remoteAddress(exchange.getRequest());
+        return authorizationCodeSingleFlight.executeReactive(code, clientId, () -> processCallback(code))
+            .flatMap(outcome -> outcome.applyTo(exchange).doOnSuccess(done -> recordCallback(outcome, startNanos)))
+            .onErrorResume(e -> {
+                logger.error("Error handling WorkOS callback", e);
+                return CallbackOutcome.redirect(exchange.getResponse(), CallbackRedirects.failure(workOSConfig, e))
+                    .doFinally(signal -> recordCallback(null, startNanos));
+            });
+    }
+
+    /**
+     * Early error redirects and failures (outcome null) count as failed callbacks without a tenant
+     */
+    private void recordCallback(CallbackOutcome outcome, long startNanos) {
+        tenantStatistics.recordCallback(outcome != null ? outcome.getConnectionId() : null,
+            outcome != null ? outcome.getCorpId() : null,
+            System.nanoTime() - startNanos, outcome == null || !outcome.isSignedIn());
+    }
+
+    /**
+     * Exchange the authorization code and build the outcome; runs once per code
+     */
+    private Mono<CallbackOutcome> processCallback(String code) {
+        logger.info("✅ Received WorkOS callback with code (length: {})", code.length());
+        // A wait for a WorkOS rate-limit permit also happens on the bounded elastic scheduler
+        return Mono.fromCallable(() -> workOSRateGovernor.execute("getProfileAndToken",
+                () -> workOS.sso.getProfileAndToken(code, workOSConfig.getClientId())).profile)
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(this::signIn)
+            .onErrorResume(WorkOSRateGovernor.RejectedException.class, e -> {
+                logger.warn("Callback shed: {}", e.getMessage());
+                return Mono.just(CallbackOutcome.redirect(CallbackRedirects.busy(workOSConfig)));
+            })
+            .onErrorResume(e -> {
+                logger.warn("❌ WorkOS SDK ProfileAndToken call failed: {}", e.getMessage());
+                logger.debug("Error details: ", e);
+                if (!workOSConfig.isStagingEnvironment()) {
+                    logger.error("Production WorkOS authentication failed: {}", e.getMessage());
+                    return Mono.just(CallbackOutcome.redirect(CallbackRedirects.failure(workOSConfig, e)));
+                }
+                return Mono.fromCallable(this::stagingFallbackSignIn);
+            });
+    }
+
+    private Mono<CallbackOutcome> signIn(Profile profile) {
+        // Per-connection admission control before any corp-mapping calls
+        long retryAfterNanos = authRateLimiter.tryAcquireConnection(profile.connectionId);
+        if (retryAfterNanos > 0) {
+            logger.warn("Rate limit exceeded for connection {}, rejecting callback for {}", profile.connectionId, profile.email);
+            return Mono.just(CallbackOutcome.rateLimited(retryAfterNanos).forTenant(profile.connectionId, null));
+        }
+
+        return Mono.zip(resolveCorpId(profile), resolveRole(profile))
+            .map(identity -> {
+                String corpId = identity.getT1();
+                String userRole = identity.getT2();
+                logger.info("✅ Retrieved WorkOS profile for {} (corpId: {}, role: {}, connection: {})",
+                    profile.email, corpId, userRole, profile.connectionId);
+
+                // Store profile in session (following WorkOS example pattern)
+                Map<String, Object> sessionAttributes = new LinkedHashMap<>();
+                sessionAttributes.put("sso_profile", profile);
+                sessionAttributes.put("user_authenticated", true);
+                sessionAttributes.put("user_email", profile.email);
+                sessionAttributes.put("user_role", userRole);
+                sessionAttributes.put("user_corp_id", corpId);
+
+                String token = jwtUtil.generateTokenForWorkOSUser(profile.email, userRole, corpId, profile);
+                return dashboardRedirect(token, sessionAttributes).forTenant(profile.connectionId, corpId);
+            });
+    }
+
+    private CallbackOutcome stagingFallbackSignIn() {
+        logger.warn("STAGING FALLBACK USER - NOT REAL DATA FROM WORKOS");
+        String corpId = "staging_corp"; // Default corpId for staging
+
+        // LinkedHashMap allows the null profile
+        Map<String, Object> sessionAttributes = new LinkedHashMap<>();
+        sessionAttributes.put("sso_profile", null);
+        sessionAttributes.put("user_authenticated", true);
+        sessionAttributes.put("user_email", workOSConfig.getStagingFallbackEmail());
+        sessionAttributes.put("user_role", workOSConfig.getStagingFallbackRole());
+        sessionAttributes.put("user_corp_id", corpId);
+        sessionAttributes.put("is_fallback_user", true);
+
+        String token = jwtUtil.generateTokenForWorkOSUserStaging(
+            workOSConfig.getStagingFallbackEmail(),
+            workOSConfig.getStagingFallbackRole(),
+            corpId,
+            workOSConfig.getStagingFallbackFirstName(),
+            workOSConfig.getStagingFallbackLastName(),
+            workOSConfig.getStagingFallbackOrgName(),
+            workOSConfig.getStagingFallbackOrgId(),
+            workOSConfig.getStagingFallbackConnectionId()
+        );
+        return dashboardRedirect(token, sessionAttributes)
+            .forTenant(workOSConfig.getStagingFallbackConnectionId(), corpId);
+    }
+
+    private CallbackOutcome dashboardRedirect(String token, Map<String, Object> sessionAttributes) {
+        jwtUtil.recordIssued(JwtUtil.ISSUED_SSO);
+        // Redirect to frontend with token (URL-encoded to handle special characters)
+        String redirectUrl = workOSConfig.getFrontendDashboardUrl() + "?token=" + CallbackRedirects.encode(token);
+        return CallbackOutcome.redirect(redirectUrl, sessionAttributes);
+    }
+
+    /**
+     * Same order as WorkOSCallbackController.extractCorpId: connection mapping,
+     * organization snapshot, identity cache, then the corp-mapping API
+     */
+    private Mono<String> resolveCorpId(Profile profile) {
+        if (profile.connectionId != null) {
+            String corpId = workOSConfig.getCorpIdByConnectionId(profile.connectionId);
+            if (corpId != null && !corpId.isEmpty()) {
+                logger.info("✅ Using corpId from connectionId mapping: {} -> {}", profile.connectionId, corpId);
+                return Mono.just(corpId);
+            }
+        }
+        String corpId = corpMappingSynchronizer.getCorpId(profile.organizationId);
+        if (corpId != null && !corpId.isEmpty()) {
+            logger.info("✅ Using corpId from corp mapping snapshot: {} -> {}", profile.organizationId, corpId);
+            return Mono.just(corpId);
+        }
+        corpId = identityResolutionCache.getCorpId(profile.organizationId, profile.email);
+        if (corpId != null) {
+            logger.info("✅ Using cached corpId from system API: {}", corpId);
+            return Mono.just(corpId);
+        }
+        if (profile.organizationId == null || profile.email == null) {
+            return Mono.just(defaultCorpId(profile));
+        }
+        return corpMappingClient.fetchUserCorpId(profile.organizationId, profile.email)
+            .doOnNext(fetched -> {
+                logger.info("✅ Using corpId from system API: {}", fetched);
+                identityResolutionCache.putCorpId(profile.organizationId, profile.email, fetched);
+            })
+            .onErrorResume(e -> {
+                logger.warn("Error fetching corpId from system API: {}", e.getMessage());
+                logger.debug("Error details: ", e);
+                return Mono.empty();
+            })
+            .switchIfEmpty(Mono.fromSupplier(() -> defaultCorpId(profile)));
+    }
+
+    private static String defaultCorpId(Profile profile) {
+        logger.error("❌ No corpId found for connectionId: {} (org: {}, email: {})",
+            profile.connectionId, profile.organizationId, profile.email);
+        return "default_corp";
+    }
+
+    /**
+     * The role chain may call the corp-mapping API through the blocking client
+     */
+    private Mono<String> resolveRole(Profile profile) {
+        return Mono.fromCallable(() -> roleResolutionChain.resolve(profile))
+            .subscribeOn(Schedulers.boundedElastic())
+            .map(resolution -> {
+                logger.info("✅ Resolved role: {} (source: {})", resolution.getRole(), resolution.getSource());
+                return resolution.getRole();
+            });
+    }
+}
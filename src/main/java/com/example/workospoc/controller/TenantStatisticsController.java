@@ -0,0 +1,53 @@
+package com.example.workospoc.controller;
+
+import com.example.workospoc.config.ApiKeys;
+import com.example.workospoc.config.TenantStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Collections;
+
+/**
+ * Per-connectionId and per-corpId callback and API statistics for operators
+ *
+ * GET /api/admin/tenant-stats returns totals since startup and the last
+ * completed interval for each tenant, busiest first. The figures cover
+ * every tenant, so a tenant's own admin role is not enough: callers send
+ * one of the keys in stats.tenant.api-keys in the X-Admin-Key header, and
+ * the endpoint is disabled while no keys are configured. Served by both the
+ * servlet and the reactive build.
+ */
+@RestController
+public class TenantStatisticsController {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantStatisticsController.class);
+
+    static final String API_KEY_HEADER = "X-Admin-Key";
+
+    private final TenantStatistics tenantStatistics;
+    private final ApiKeys apiKeys;
+
+    public TenantStatisticsController(TenantStatistics tenantStatistics,
+                                      @Value("${stats.tenant.api-keys:}") String apiKeysSpec) {
+        this.tenantStatistics = tenantStatistics;
+        this.apiKeys = new ApiKeys(apiKeysSpec);
+        if (apiKeys.isEmpty()) {
+            logger.info("Tenant statistics endpoint disabled (no stats.tenant.api-keys configured)");
+        }
+    }
+
+    @GetMapping("/api/admin/tenant-stats")
+    public ResponseEntity<?> tenantStats(@RequestHeader(value = API_KEY_HEADER, required = false) String apiKey) {
+        if (!apiKeys.matches(apiKey)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Collections.singletonMap("error", "invalid_client"));
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(tenantStatistics.snapshot());
+    }
+}
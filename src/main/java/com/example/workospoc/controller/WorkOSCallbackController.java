@@ -1,29 +1,33 @@
 package com.example.workospoc.controller;
 
+import com.example.workospoc.config.AuthRateLimiter;
+import com.example.workospoc.config.CorpMappingClient;
+import com.example.workospoc.config.CorpMappingSynchronizer;
+import com.example.workospoc.config.IdentityResolutionCache;
 import com.example.workospoc.config.JwtUtil;
+import com.example.workospoc.config.RoleResolutionChain;
+import com.example.workospoc.config.TenantFairScheduler;
+import com.example.workospoc.config.TenantStatistics;
 import com.example.workospoc.config.WorkOSConfig;
+import com.example.workospoc.config.WorkOSRateGovernor;
 import com.workos.WorkOS;
 import com.workos.sso.models.Profile;
 import org.slf4j.Logger;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.client.RestTemplate;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import javax.servlet.http.HttpSession;
 import java.io.IOException;
 import java.net.URLEncoder;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class WorkOSCallbackController {
 
     private static final Logger logger = LoggerFactory.getLogger(WorkOSCallbackController.class);
@@ -31,15 +35,34 @@ public class WorkOSCallbackController {
     private final WorkOS workOS;
     private final JwtUtil jwtUtil;
     private final WorkOSConfig workOSConfig;
-    private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper;
+    private final CorpMappingClient corpMappingClient;
+    private final CorpMappingSynchronizer corpMappingSynchronizer;
+    private final IdentityResolutionCache identityResolutionCache;
+    private final TenantFairScheduler tenantFairScheduler;
+    private final RoleResolutionChain roleResolutionChain;
+    private final AuthRateLimiter authRateLimiter;
+    private final AuthorizationCodeSingleFlight authorizationCodeSingleFlight;
+    private final WorkOSRateGovernor workOSRateGovernor;
+    private final TenantStatistics tenantStatistics;
 
-    public WorkOSCallbackController(WorkOS workOS, JwtUtil jwtUtil, WorkOSConfig workOSConfig, RestTemplate restTemplate) {
+    public WorkOSCallbackController(WorkOS workOS, JwtUtil jwtUtil, WorkOSConfig workOSConfig,
+                                    CorpMappingClient corpMappingClient, CorpMappingSynchronizer corpMappingSynchronizer,
+                                    IdentityResolutionCache identityResolutionCache, TenantFairScheduler tenantFairScheduler,
+                                    RoleResolutionChain roleResolutionChain,
+                                    AuthRateLimiter authRateLimiter, AuthorizationCodeSingleFlight authorizationCodeSingleFlight,
+                                    WorkOSRateGovernor workOSRateGovernor, TenantStatistics tenantStatistics) {
         this.workOS = workOS;
         this.jwtUtil = jwtUtil;
         this.workOSConfig = workOSConfig;
-        this.restTemplate = restTemplate;
-        this.objectMapper = new ObjectMapper();
+        this.corpMappingClient = corpMappingClient;
+        this.corpMappingSynchronizer = corpMappingSynchronizer;
+        this.identityResolutionCache = identityResolutionCache;
+        this.tenantFairScheduler = tenantFairScheduler;
+        this.roleResolutionChain = roleResolutionChain;
+        this.authRateLimiter = authRateLimiter;
+        this.authorizationCodeSingleFlight = authorizationCodeSingleFlight;
+        this.workOSRateGovernor = workOSRateGovernor;
+        this.tenantStatistics = tenantStatistics;
     }
 
     @GetMapping("/auth/workos/callback")
@@ -50,6 +73,9 @@ public class WorkOSCallbackController {
             HttpServletRequest request,
             HttpServletResponse response) throws IOException {
 
+        long startNanos = System.nanoTime();
+        CallbackOutcome outcome = null;
+
         // ADD COMPREHENSIVE ENTRY-POINT LOGGING
         logger.info("🔔🔔🔔 CALLBACK ENDPOINT HIT 🔔🔔🔔");
         logger.info("Request URI: {}", request.getRequestURI());
@@ -81,6 +107,29 @@ public class WorkOSCallbackController {
                 return;
             }
 
+            // Repeated callbacks for the same code share one exchange and one redirect
+            outcome = authorizationCodeSingleFlight.execute(
+                code, request.getRemoteAddr(), () -> processCallback(code));
+            outcome.applyTo(request, response);
+            logger.info("Redirect response sent successfully");
+
+        } catch (Exception e) {
+            logger.error("Error handling WorkOS callback", e);
+            response.sendRedirect(errorRedirectUrl(e));
+        } finally {
+            // Early error redirects and exceptions count as failed callbacks without a tenant
+            tenantStatistics.recordCallback(outcome != null ? outcome.getConnectionId() : null,
+                outcome != null ? outcome.getCorpId() : null,
+                System.nanoTime() - startNanos, outcome == null || !outcome.isSignedIn());
+        }
+    }
+
+    /**
+     * Exchange the authorization code and build the outcome (redirect URL and
+     * session attributes); runs once per code
+     */
+    private CallbackOutcome processCallback(String code) throws IOException {
+        try {
             logger.info("✅ Received WorkOS callback with code: {} (length: {})", code, code.length());
             logger.debug("WorkOS instance: {}", workOS);
             logger.debug("Client ID: {}", workOSConfig.getClientId());
@@ -90,6 +139,7 @@ public class WorkOSCallbackController {
             String userRole;
             String corpId;
             Profile profile = null;
+            Map<String, Object> sessionAttributes = new LinkedHashMap<>();
 
             // Check if this is Test IdP callback (staging environment using Test Identity Provider)
             boolean isTestIdpCallback = workOSConfig.isStagingEnvironment();
@@ -104,17 +154,27 @@ public class WorkOSCallbackController {
                 logger.info("🔧 Using official WorkOS SDK getProfileAndToken method");
                 
                 // Use official WorkOS SDK method - this should work with both staging and production
-                com.workos.sso.models.ProfileAndToken profileAndToken = workOS.sso.getProfileAndToken(
-                    code, 
-                    workOSConfig.getClientId()
-                );
+                // (through the client-side governor so a login surge stays within the WorkOS rate limit)
+                com.workos.sso.models.ProfileAndToken profileAndToken = workOSRateGovernor.execute("getProfileAndToken",
+                    () -> workOS.sso.getProfileAndToken(code, workOSConfig.getClientId()));
                 
                 profile = profileAndToken.profile;
                 userEmail = profile.email;
                 
-                // Extract custom attributes from SAML
-                corpId = extractCorpId(profile);
-                userRole = extractUserRole(profile, workOS);
+                // Per-connection admission control before any corp-mapping calls
+                long retryAfterNanos = authRateLimiter.tryAcquireConnection(profile.connectionId);
+                if (retryAfterNanos > 0) {
+                    logger.warn("Rate limit exceeded for connection {}, rejecting callback for {}", profile.connectionId, userEmail);
+                    return CallbackOutcome.rateLimited(retryAfterNanos).forTenant(profile.connectionId, null);
+                }
+                
+                // Extract custom attributes from SAML; corp-mapping lookups run on the
+                // per-tenant fair-share queue so one IdP's login storm cannot starve others
+                Profile resolvedProfile = profile;
+                ResolvedIdentity identity = tenantFairScheduler.execute(tenantKey(profile),
+                    () -> new ResolvedIdentity(extractCorpId(resolvedProfile), extractUserRole(resolvedProfile)));
+                corpId = identity.corpId;
+                userRole = identity.role;
                 
                 // Log extraction results
                 logger.info("Extracted custom attributes - corpId: {}, role: {}", corpId, userRole);
@@ -134,25 +194,24 @@ public class WorkOSCallbackController {
                     profile.id, profile.email, profile.firstName, profile.lastName, profile.connectionId, profile.connectionType, roleForLog);
                 
                 // Store profile in session (following WorkOS example pattern)
-                HttpSession session = request.getSession();
-                session.setAttribute("sso_profile", profile);
-                session.setAttribute("user_authenticated", true);
-                session.setAttribute("user_email", userEmail);
-                session.setAttribute("user_role", userRole);
-                session.setAttribute("user_corp_id", corpId);
+                sessionAttributes.put("sso_profile", profile);
+                sessionAttributes.put("user_authenticated", true);
+                sessionAttributes.put("user_email", userEmail);
+                sessionAttributes.put("user_role", userRole);
+                sessionAttributes.put("user_corp_id", corpId);
                 
                 logger.info("💾 Stored profile in session for user: {} (corpId: {}, role: {})", userEmail, corpId, userRole);
                 
-                // Log raw attributes to see what SAML attributes are available
-                if (profile.rawAttributes != null && !profile.rawAttributes.isEmpty()) {
-                    logger.info("WorkOS Profile raw attributes: {}", profile.rawAttributes);
-                    for (String key : profile.rawAttributes.keySet()) {
-                        logger.info("SAML Attribute: {} = {}", key, profile.rawAttributes.get(key));
-                    }
-                } else {
-                    logger.warn("No raw attributes found in WorkOS profile");
+                // Attribute names only: the values are personal data
+                if (profile.rawAttributes != null) {
+                    logger.debug("WorkOS profile SAML attributes: {}", profile.rawAttributes.keySet());
                 }
                 
+            } catch (TenantFairScheduler.RejectedException | WorkOSRateGovernor.RejectedException e) {
+                // Send the user back to sign in again rather than waiting any longer
+                logger.warn("Callback shed: {}", e.getMessage());
+                return CallbackOutcome.redirect(CallbackRedirects.busy(workOSConfig))
+                    .forTenant(profile != null ? profile.connectionId : null, null);
             } catch (Exception e) {
                 logger.warn("❌ WorkOS SDK ProfileAndToken call failed: {}", e.getMessage());
                 logger.debug("Error details: ", e);
@@ -168,14 +227,13 @@ public class WorkOSCallbackController {
                     corpId = "staging_corp"; // Default corpId for staging
                     profile = null; // No real profile in staging fallback
                     
-                    // Store fallback data in session too
-                    HttpSession session = request.getSession();
-                    session.setAttribute("sso_profile", null);
-                    session.setAttribute("user_authenticated", true);
-                    session.setAttribute("user_email", userEmail);
-                    session.setAttribute("user_role", userRole);
-                    session.setAttribute("user_corp_id", corpId);
-                    session.setAttribute("is_fallback_user", true);
+                    // Store fallback data in session too (LinkedHashMap allows the null profile)
+                    sessionAttributes.put("sso_profile", null);
+                    sessionAttributes.put("user_authenticated", true);
+                    sessionAttributes.put("user_email", userEmail);
+                    sessionAttributes.put("user_role", userRole);
+                    sessionAttributes.put("user_corp_id", corpId);
+                    sessionAttributes.put("is_fallback_user", true);
                     
                     logger.info("Using static fallback user:");
                     logger.info("  Email: {}", userEmail);
@@ -189,16 +247,8 @@ public class WorkOSCallbackController {
                 } else {
                     // PRODUCTION ERROR: Show proper error page
                     logger.error("Production WorkOS authentication failed: {}", e.getMessage());
-                    if (e.getMessage() != null && e.getMessage().contains("Unauthorized")) {
-                        String errorUrl = workOSConfig.getFrontendLoginUrl() + "?error=api_unauthorized&message=" + 
-                            URLEncoder.encode("WorkOS API authentication failed. Check API key configuration.", "UTF-8");
-                        response.sendRedirect(errorUrl);
-                    } else {
-                        String errorUrl = workOSConfig.getFrontendLoginUrl() + "?error=sso_failed&message=" + 
-                            URLEncoder.encode("Authentication failed: " + e.getMessage(), "UTF-8");
-                        response.sendRedirect(errorUrl);
-                    }
-                    return;
+                    return CallbackOutcome.redirect(errorRedirectUrl(e))
+                        .forTenant(profile != null ? profile.connectionId : null, null);
                 }
             }
 
@@ -223,94 +273,37 @@ public class WorkOSCallbackController {
                 logger.info("Generated JWT token from staging fallback data for user: {} (corpId: {}, role: {})", userEmail, corpId, userRole);
             }
 
+            jwtUtil.recordIssued(JwtUtil.ISSUED_SSO);
+
             // Redirect to frontend with token (URL-encoded to handle special characters)
             String encodedToken = URLEncoder.encode(token, "UTF-8");
             String redirectUrl = workOSConfig.getFrontendDashboardUrl() + "?token=" + encodedToken;
             logger.info("Redirecting to frontend with URL-encoded token");
             logger.debug("Token length: {}, Encoded token length: {}", token.length(), encodedToken.length());
-            response.sendRedirect(redirectUrl);
-            logger.info("Redirect response sent successfully");
+            String connectionId = profile != null ? profile.connectionId : workOSConfig.getStagingFallbackConnectionId();
+            return CallbackOutcome.redirect(redirectUrl, sessionAttributes).forTenant(connectionId, corpId);
 
         } catch (Exception e) {
             logger.error("Error handling WorkOS callback", e);
-            
-            // Check if this is an unauthorized error (API key issue)
-            if (e.getMessage() != null && e.getMessage().contains("Unauthorized")) {
-                logger.error("WorkOS API Unauthorized error - likely invalid API key");
-                String errorUrl = workOSConfig.getFrontendLoginUrl() + "?error=api_unauthorized&message=" + 
-                    URLEncoder.encode("WorkOS API authentication failed. Please check your API key configuration.", "UTF-8");
-                response.sendRedirect(errorUrl);
-            } else {
-                String errorUrl = workOSConfig.getFrontendLoginUrl() + "?error=sso_failed&message=" + 
-                    URLEncoder.encode("Authentication failed: " + e.getMessage(), "UTF-8");
-                response.sendRedirect(errorUrl);
-            }
-        }
-    }
-
-    private void handleOAuthError(String error, String errorDescription, HttpServletResponse response) throws IOException {
-        logger.error("❌ OAuth Error: {} - {}", error, errorDescription);
-        
-        if ("access_denied".equals(error)) {
-            String errorUrl = workOSConfig.getFrontendLoginUrl() + "?error=access_denied&message=" + 
-                URLEncoder.encode("Access denied by user", "UTF-8");
-            response.sendRedirect(errorUrl);
-        } else if ("invalid_request".equals(error)) {
-            String errorUrl = workOSConfig.getFrontendLoginUrl() + "?error=invalid_request&message=" + 
-                URLEncoder.encode("Invalid request parameters", "UTF-8");
-            response.sendRedirect(errorUrl);
-        } else if ("domain_not_allowed".equals(error)) {
-            String errorUrl = workOSConfig.getFrontendLoginUrl() + "?error=domain_not_allowed&message=" + 
-                URLEncoder.encode("Please use an email from an allowed domain (e.g., @example.com)", "UTF-8");
-            response.sendRedirect(errorUrl);
-        } else if ("server_error".equals(error) && errorDescription != null && errorDescription.contains("SAML")) {
-            // SAML configuration error - provide specific guidance
-            logger.error("❌ SAML Configuration Error: {}", errorDescription);
-            logger.error("   This usually means one of the following:");
-            logger.error("   1. ACS URL in Okta doesn't match WorkOS ACS URL exactly");
-            logger.error("   2. Entity ID (Audience URI) mismatch between Okta and WorkOS");
-            logger.error("   3. SAML signing certificate mismatch");
-            logger.error("   4. Name ID format mismatch");
-            logger.error("   5. Missing required SAML attributes");
-            logger.error("   6. SAML response signature validation failed");
-            logger.error("   Please verify all SAML settings in Okta match WorkOS configuration");
-            
-            String detailedMessage = String.format(
-                "SAML Configuration Error: %s. Please verify: ACS URL, Entity ID, Certificate, Name ID format, and SAML attributes match WorkOS settings.",
-                errorDescription
-            );
-            String errorUrl = workOSConfig.getFrontendLoginUrl() + "?error=saml_config_error&message=" + 
-                URLEncoder.encode(detailedMessage, "UTF-8");
-            response.sendRedirect(errorUrl);
-        } else {
-            String errorUrl = workOSConfig.getFrontendLoginUrl() + "?error=sso_failed&message=" + 
-                URLEncoder.encode(errorDescription != null ? errorDescription : "SSO authentication failed", "UTF-8");
-            response.sendRedirect(errorUrl);
+            return CallbackOutcome.redirect(errorRedirectUrl(e));
         }
     }
 
     /**
-     * Extract custom SAML attribute from WorkOS profile raw attributes
+     * Fair-share scheduling key: the WorkOS connection, or the organization if absent
      */
-    private String extractCustomAttribute(Profile profile, String attributeName, String defaultValue) {
-        if (profile == null || profile.rawAttributes == null || profile.rawAttributes.isEmpty()) {
-            logger.debug("No raw attributes available for extraction of {}, using default: {}", attributeName, defaultValue);
-            return defaultValue;
-        }
-        
-        Object attributeValue = profile.rawAttributes.get(attributeName);
-        if (attributeValue != null) {
-            String value = attributeValue.toString().trim();
-            if (!value.isEmpty()) {
-                logger.info("Extracted {} = {} from WorkOS SAML attributes", attributeName, value);
-                return value;
-            }
-        }
-        
-        logger.debug("Attribute {} not found or empty in raw attributes, using default: {}", attributeName, defaultValue);
-        return defaultValue;
+    private static String tenantKey(Profile profile) {
+        return profile.connectionId != null ? profile.connectionId : profile.organizationId;
     }
-    
+
+    private String errorRedirectUrl(Exception e) {
+        return CallbackRedirects.failure(workOSConfig, e);
+    }
+
+    private void handleOAuthError(String error, String errorDescription, HttpServletResponse response) throws IOException {
+        response.sendRedirect(CallbackRedirects.oauthError(workOSConfig, error, errorDescription));
+    }
+
     /**
      * Extract corpId using connectionId mapping (primary method)
      * Falls back to system API if mapping not configured
@@ -331,65 +324,33 @@ public class WorkOSCallbackController {
             logger.warn("Profile connectionId is null - cannot lookup corpId mapping");
         }
         
-        // SECOND: Fallback to system API (if mapping not configured)
+        // SECOND: Organization -> corpId snapshot synced in the background (no upstream call)
+        corpId = corpMappingSynchronizer.getCorpId(profile.organizationId);
+        if (corpId != null && !corpId.isEmpty()) {
+            logger.info("✅ Using corpId from corp mapping snapshot: {} -> {}", profile.organizationId, corpId);
+            return corpId;
+        }
+
+        // THIRD: Fallback to system API (organization not in the snapshot yet, or snapshot not loaded),
+        // answered from the restart-surviving identity cache when possible
+        corpId = identityResolutionCache.getCorpId(profile.organizationId, profile.email);
+        if (corpId != null) {
+            logger.info("✅ Using cached corpId from system API: {}", corpId);
+            return corpId;
+        }
         if (profile.organizationId != null && profile.email != null) {
             try {
                 logger.info("Attempting to fetch corpId from system API for: {} in org: {}", 
                            profile.email, profile.organizationId);
                 
-                // TODO: Replace with actual API endpoint URL from configuration
-                String apiBaseUrl = workOSConfig.getCorpMappingApiBaseUrl();
-                String apiKey = workOSConfig.getCorpMappingApiKey();
-                
-                // Build the API endpoint URL
-                // TODO: Update endpoint path to match your actual API
-                String url = String.format("%s/api/user/corpId?organizationId=%s&email=%s",
-                    apiBaseUrl,
-                    java.net.URLEncoder.encode(profile.organizationId, "UTF-8"),
-                    java.net.URLEncoder.encode(profile.email, "UTF-8"));
-                
-                // Set up HTTP headers with API key
-                HttpHeaders headers = new HttpHeaders();
-                if (apiKey != null && !apiKey.isEmpty()) {
-                    headers.set("Authorization", "Bearer " + apiKey);
-                }
-                headers.set("Content-Type", "application/json");
-                HttpEntity<String> entity = new HttpEntity<>(headers);
-                
-                // Make REST API call to your system
-                ResponseEntity<String> response = restTemplate.exchange(
-                    url, HttpMethod.GET, entity, String.class);
-                
-                if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                    // Parse JSON response
-                    // TODO: Update response structure to match your actual API response format
-                    JsonNode jsonNode = objectMapper.readTree(response.getBody());
-                    
-                    // Try different possible response structures
-                    JsonNode corpIdNode = jsonNode.get("corpId");
-                    if (corpIdNode == null) {
-                        corpIdNode = jsonNode.get("corp_id");
-                    }
-                    if (corpIdNode == null) {
-                        corpIdNode = jsonNode.get("accountId");
-                    }
-                    if (corpIdNode == null) {
-                        JsonNode dataNode = jsonNode.get("data");
-                        if (dataNode != null && dataNode.isObject()) {
-                            corpIdNode = dataNode.get("corpId");
-                        }
-                    }
-                    
-                    if (corpIdNode != null) {
-                        corpId = corpIdNode.asText();
-                        logger.info("✅ Using corpId from system API: {}", corpId);
-                        return corpId;
-                    } else {
-                        logger.warn("CorpId not found in API response for user: {} in org: {}", 
-                                   profile.email, profile.organizationId);
-                    }
+                corpId = corpMappingClient.fetchUserCorpId(profile.organizationId, profile.email);
+                if (corpId != null) {
+                    logger.info("✅ Using corpId from system API: {}", corpId);
+                    identityResolutionCache.putCorpId(profile.organizationId, profile.email, corpId);
+                    return corpId;
                 } else {
-                    logger.warn("System API returned non-success status: {}", response.getStatusCode());
+                    logger.warn("CorpId not found in API response for user: {} in org: {}", 
+                               profile.email, profile.organizationId);
                 }
             } catch (Exception e) {
                 logger.warn("Error fetching corpId from system API: {}", e.getMessage());
@@ -397,7 +358,7 @@ public class WorkOSCallbackController {
             }
         }
         
-        // THIRD: Default fallback (should not happen if mapping is configured)
+        // FOURTH: Default fallback (should not happen if mapping is configured)
         logger.error("❌ No corpId found for connectionId: {} (org: {}, email: {})", 
                     profile.connectionId, profile.organizationId, profile.email);
         logger.error("   Please add connectionId mapping in application.yml or ensure system API is available");
@@ -405,120 +366,22 @@ public class WorkOSCallbackController {
     }
     
     /**
-     * Extract role from your system's API using WorkOS organization ID and email
-     * Falls back to customer_role SAML attribute if API call fails
+     * Resolve the user's role through the connection's role resolution chain
+     * (SAML attribute, system API, POC values), validated against the allowed roles
      */
-    private String extractUserRole(Profile profile, WorkOS workOS) {
-        String role = null;
-        String roleSource = null;
-        
-        // FIRST: Try to fetch role from your system's API
-        if (profile.organizationId != null && profile.email != null) {
-            try {
-                logger.info("Attempting to fetch role from system API for: {} in org: {}", 
-                           profile.email, profile.organizationId);
-                
-                // TODO: Replace with actual API endpoint URL from configuration
-                String apiBaseUrl = workOSConfig.getCorpMappingApiBaseUrl();
-                String apiKey = workOSConfig.getCorpMappingApiKey();
-                
-                // Build the API endpoint URL
-                // TODO: Update endpoint path to match your actual API
-                String url = String.format("%s/api/user/role?organizationId=%s&email=%s",
-                    apiBaseUrl,
-                    java.net.URLEncoder.encode(profile.organizationId, "UTF-8"),
-                    java.net.URLEncoder.encode(profile.email, "UTF-8"));
-                
-                // Set up HTTP headers with API key
-                HttpHeaders headers = new HttpHeaders();
-                if (apiKey != null && !apiKey.isEmpty()) {
-                    headers.set("Authorization", "Bearer " + apiKey);
-                }
-                headers.set("Content-Type", "application/json");
-                HttpEntity<String> entity = new HttpEntity<>(headers);
-                
-                // Make REST API call to your system
-                ResponseEntity<String> response = restTemplate.exchange(
-                    url, HttpMethod.GET, entity, String.class);
-                
-                if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                    // Parse JSON response
-                    // TODO: Update response structure to match your actual API response format
-                    JsonNode jsonNode = objectMapper.readTree(response.getBody());
-                    
-                    // Try different possible response structures
-                    JsonNode roleNode = jsonNode.get("role");
-                    if (roleNode == null) {
-                        roleNode = jsonNode.get("userRole");
-                    }
-                    if (roleNode == null) {
-                        roleNode = jsonNode.get("data");
-                        if (roleNode != null && roleNode.isObject()) {
-                            roleNode = roleNode.get("role");
-                        }
-                    }
-                    
-                    if (roleNode != null) {
-                        role = roleNode.asText();
-                        roleSource = "System API role";
-                        logger.info("✅ Using role from system API: {} (source: {})", role, roleSource);
-                    } else {
-                        logger.warn("Role not found in API response for user: {} in org: {}", 
-                                   profile.email, profile.organizationId);
-                    }
-                } else {
-                    logger.warn("System API returned non-success status: {}", response.getStatusCode());
-                }
-            } catch (Exception e) {
-                logger.warn("Error fetching role from system API: {}", e.getMessage());
-                logger.debug("Error details: ", e);
-            }
-        }
-        
-        // SECOND: Fallback to hardcoded test values for POC
-        if (role == null || role.isEmpty()) {
-            // TODO: Remove hardcoded values once API is integrated
-            logger.info("Using hardcoded test role for POC");
-            // Hardcode based on email for testing
-            if (profile.email != null && profile.email.contains("rleon")) {
-                role = "org_super"; // Your test user
-                roleSource = "Hardcoded test value (POC)";
-                logger.info("✅ Using hardcoded role: {} (source: {})", role, roleSource);
-            } else {
-                role = "org_user"; // Default
-                roleSource = "Hardcoded default (POC)";
-                logger.info("Using hardcoded default role: {} (source: {})", role, roleSource);
-            }
-        }
-        
-        // THIRD: Fallback to SAML attribute customer_role
-        if (role == null || role.isEmpty()) {
-            role = extractCustomAttribute(profile, "customer_role", null);
-            if (role != null && !role.isEmpty()) {
-                roleSource = "SAML customer_role attribute";
-                logger.info("Using role from SAML attribute: {} (source: {})", role, roleSource);
-            }
-        }
-        
-        // FOURTH: If no role found, use default
-        if (role == null || role.isEmpty()) {
-            logger.warn("No role found, using default: org_user");
-            return "org_user";
-        }
-        
-        // Validate that the role is one of the expected system roles
-        switch (role) {
-            case "org_super":
-            case "org_managerplus":
-            case "org_manager":
-            case "org_support":
-            case "org_user":
-                logger.info("✅ Validated system role: {} (source: {})", role, roleSource);
-                return role;
-            default:
-                logger.warn("Unknown system role '{}' (source: {}), assigning default: org_user", role, roleSource);
-                return "org_user";
-        }
+    private String extractUserRole(Profile profile) {
+        RoleResolutionChain.Resolution resolution = roleResolutionChain.resolve(profile);
+        logger.info("✅ Resolved role: {} (source: {})", resolution.getRole(), resolution.getSource());
+        return resolution.getRole();
     }
 
-}
\ No newline at end of file
+    private static final class ResolvedIdentity {
+        private final String corpId;
+        private final String role;
+
+        private ResolvedIdentity(String corpId, String role) {
+            this.corpId = corpId;
+            this.role = role;
+        }
+    }
+}
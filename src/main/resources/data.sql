@@ -0,0 +1,20 @@
+-- Demo users (inserted only if missing, so imported or rehashed rows are kept)
+-- BCrypt hash for "password" is: $2a$10$i83EBAsRLLxlbamcE5UHn.ZmQ5TOgsbG5RpKyKFwMnWewQCFcu/Ja
+-- Using role codes as usernames to match frontend display
+MERGE INTO app_user u
+USING (VALUES
+    ('org_super',       '$2a$10$i83EBAsRLLxlbamcE5UHn.ZmQ5TOgsbG5RpKyKFwMnWewQCFcu/Ja', 'corp1', 'org_super'),
+    ('org_managerplus', '$2a$10$i83EBAsRLLxlbamcE5UHn.ZmQ5TOgsbG5RpKyKFwMnWewQCFcu/Ja', 'corp1', 'org_managerplus'),
+    ('org_manager',     '$2a$10$i83EBAsRLLxlbamcE5UHn.ZmQ5TOgsbG5RpKyKFwMnWewQCFcu/Ja', 'corp1', 'org_manager'),
+    ('org_support',     '$2a$10$i83EBAsRLLxlbamcE5UHn.ZmQ5TOgsbG5RpKyKFwMnWewQCFcu/Ja', 'corp1', 'org_support'),
+    ('org_user',        '$2a$10$i83EBAsRLLxlbamcE5UHn.ZmQ5TOgsbG5RpKyKFwMnWewQCFcu/Ja', 'corp1', 'org_user'),
+    -- Legacy username support for backward compatibility
+    ('admin',           '$2a$10$i83EBAsRLLxlbamcE5UHn.ZmQ5TOgsbG5RpKyKFwMnWewQCFcu/Ja', 'corp1', 'org_super'),
+    ('manager',         '$2a$10$i83EBAsRLLxlbamcE5UHn.ZmQ5TOgsbG5RpKyKFwMnWewQCFcu/Ja', 'corp1', 'org_managerplus'),
+    ('user',            '$2a$10$i83EBAsRLLxlbamcE5UHn.ZmQ5TOgsbG5RpKyKFwMnWewQCFcu/Ja', 'corp1', 'org_manager'),
+    ('support',         '$2a$10$i83EBAsRLLxlbamcE5UHn.ZmQ5TOgsbG5RpKyKFwMnWewQCFcu/Ja', 'corp1', 'org_support')
+) AS s (username, password_hash, corp_id, role)
+ON u.username = s.username
+WHEN NOT MATCHED THEN
+    INSERT (username, password_hash, corp_id, role)
+    VALUES (s.username, s.password_hash, s.corp_id, s.role);
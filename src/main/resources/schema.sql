@@ -0,0 +1,17 @@
+-- Local login user store
+-- username is the primary key, so lookups by username are index seeks
+CREATE TABLE IF NOT EXISTS app_user (
+    username      VARCHAR(255) NOT NULL PRIMARY KEY,
+    password_hash VARCHAR(255) NOT NULL,
+    corp_id       VARCHAR(255),
+    role          VARCHAR(64)  NOT NULL
+);
+
+-- Opaque reference tokens (jwt.token-mode: reference, jwt.reference.persist: true)
+-- Keyed by the SHA-256 of the handle; the handle itself is never stored
+CREATE TABLE IF NOT EXISTS reference_token (
+    handle_hash VARCHAR(64) NOT NULL PRIMARY KEY,
+    claims_json CLOB        NOT NULL,
+    expires_at  BIGINT      NOT NULL
+);
+CREATE INDEX IF NOT EXISTS reference_token_expires_at ON reference_token (expires_at);